@@ -5,11 +5,17 @@ import java.util.Scanner;
  * 
  * File: AIC4.java 
  * Authors: Calder Birdsey and Brandon Choe 
- * Updated: 5/15/20
+ * Updated: 10/17/26
  * 
  * Description: Main driver file for Connect-4 with AI opponent. Implements
  * gameplay via the command line and allows human user to compete against AI
  * agent.
+ *
+ * Usage: java AIC4 [budgetMs] [-ponder | -ponder-all] [-mcts [-threads N]]
+ * -ponder searches the AI's answer to the predicted human move while the 
+ * human thinks, -ponder-all searches the answers to every human move. 
+ * -mcts plays the Monte Carlo tree search agent (see MCTS.java) instead of 
+ * minimax, for budgetMs per move (default 1000) on N threads. 
  */
  
 public class AIC4 {
@@ -25,9 +31,48 @@ public class AIC4 {
         Board board = new Board(); 
         Minimax agent = new Minimax(); 
         agent.depth = 5; 
+
+        Ponderer ponderer = null; 
+        boolean ponder = false, ponderAll = false; 
+        MCTS mcts = null; 
+        int threads = 1; 
+
+        // optional per-move time budget in ms - searches by iterative deepening 
+        // instead of to a fixed depth
+        for(int i = 0; i < args.length; i++) {
+            String arg = args[i]; 
+            if(arg.equals("-ponder")) {
+                ponder = true; 
+            } else if(arg.equals("-ponder-all")) {
+                ponderAll = true; 
+            } else if(arg.equals("-mcts")) {
+                mcts = new MCTS(); 
+            } else if(arg.equals("-threads")) {
+                threads = Integer.parseInt(args[++i]); 
+            } else {
+                agent.inPlace = true; 
+                agent.timeBudgetMs = Long.parseLong(arg); 
+            }
+        }
+
+        if(mcts != null) {
+            if(ponder || ponderAll) 
+                throw new IllegalArgumentException("Pondering needs the minimax agent"); 
+            if(agent.timeBudgetMs > 0) 
+                mcts.timeBudgetMs = agent.timeBudgetMs; 
+            mcts.threads = threads; 
+        }
+
+        // pondering needs the in-place search, the only one that can be stopped
+        if(ponder || ponderAll) {
+            agent.inPlace = true; 
+            ponderer = new Ponderer(agent, ponderAll); 
+        }
         board.setBoard(); 
         System.out.println("\nWelcome to command-line Connect-4 against an AI player. Press (q) at anytime to quit. Human (X) gets to make the first move:");
         board.printBoard(); 
+        if(ponderer != null) 
+            ponderer.start(board, agent); 
         try (Scanner scan = new Scanner(System.in)) {
             while(board.playing) {
                 int col; 
@@ -37,6 +82,10 @@ public class AIC4 {
                     s =  scan.next(); 
                     if(s.equals("q")) {
                         System.out.println("Exiting game..."); 
+                        if(ponderer != null) 
+                            ponderer.shutdown(); 
+                        if(mcts != null) 
+                            mcts.shutdown(); 
                         return; 
                     }
                     col = Integer.parseInt(s);
@@ -48,12 +97,34 @@ public class AIC4 {
                     board.makeMove(col, true);
                 } else {
                     System.out.println("AI making move...");
-                    agent.initAgent(board); 
+                    long start = System.nanoTime(); 
+                    int aiCol = ponderer != null ? ponderer.take(board.lastHumanMove) : -1; 
+                    if(aiCol > 0) {
+                        board.makeMove(aiCol, false); 
+                        System.out.printf("Pondered move played after %.1f ms%n", (System.nanoTime() - start) / 1e6); 
+                    } else if(mcts != null) {
+                        mcts.initAgent(board); 
+                        if(mcts.lastPlayouts > 0) 
+                            System.out.printf("%d playouts, expected result %.2f%n", mcts.lastPlayouts, mcts.lastValue); 
+                    } else {
+                        agent.initAgent(board); 
+                        if(agent.lastSolveNanos >= 0) 
+                            System.out.printf("Endgame solved in %.1f ms%n", agent.lastSolveNanos / 1e6); 
+                    }
+                    if(ponderer != null) 
+                        ponderer.start(board, agent); 
                 }
                 humanTurn = !humanTurn;
                 board.printBoard();
             } 
         }
+        if(mcts != null) 
+            mcts.shutdown(); 
+        if(ponderer != null) {
+            ponderer.shutdown(); 
+            System.out.printf("Pondering: %d of %d human moves answered from a pondered search%n", 
+                ponderer.hits, ponderer.hits + ponderer.misses); 
+        }
         if(board.boardFull) {
             System.out.println("The game is a tie!"); 
         } else {
@@ -67,5 +138,8 @@ public class AIC4 {
                 System.out.println("Congratulations, you bested our AI agent!"); 
         }
         System.out.println("This game lasted for " + board.moveCount + " moves."); 
+        if(agent.gameSearches > 0) 
+            System.out.printf("Search reuse: %d of %d searches started from a stored position, %.1f%% of table probes hit earlier searches%n", 
+                agent.gameRootHits, agent.gameSearches, 100 * agent.reuseHitRate()); 
     }
 }
\ No newline at end of file
@@ -0,0 +1,229 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: AIC4_Batch.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Headless batch analysis of positions. Reads one position per
+ * line as the columns played from the empty board (e.g. 4453), analyzes each
+ * with the advanced AI for the side to move and writes one line per position,
+ * in input order:
+ *   moves col score nodes source
+ * where score is Minimax.lastScore for the side to move and source is how the
+ * move was found (search, opening, block or solve). Positions that cannot be
+ * played out, or are already over, get "invalid" or "over" in place of the
+ * analysis. Blank lines and lines starting with # are skipped.
+ *
+ * The file is streamed and at most -queue positions are in flight, so memory
+ * use does not grow with the file. Each worker thread keeps its own boards
+ * and agents, one per side, and starts their tables, killers and history
+ * afresh for every position (see Minimax.newGame), so a depth search gives
+ * the same line for a position whatever the thread count or input order.
+ * Options:
+ *   -threads N   positions to analyze at once (default available processors)
+ *   -queue N     positions read ahead of the output (default 64 per thread)
+ *   -depth D     search depth (default 7)
+ *   -movetime M  search by iterative deepening for M ms instead of to a depth
+ *   -tt MB       transposition table size per agent (default 16)
+ *   -nobook      ignore the opening book
+ *   -check       analyze every position again on the main thread and report
+ *                the lines that differ, exiting with status 1 if any do
+ * followed by the input file and an optional output file (default stdout).
+ */
+
+public class AIC4_Batch {
+
+    public static int threads = Runtime.getRuntime().availableProcessors();
+    public static int queue = 0;
+    public static int depth = 7;
+    public static long moveTime = 0;
+    public static int ttSizeMB = 16;
+    public static boolean useBook = true;
+    public static boolean check = false;
+    public static String input, output;
+
+    // per-thread board and agents, X and O kept apart so neither has its
+    // tables cleared by a change of side
+    static final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+    // with -check, a worker of the main thread repeats every analysis, and
+    // the lines that came out different
+    static Worker checker;
+    static long differing;
+
+    /**
+     * main function to analyze every position of the input file
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        parseArgs(args);
+        if(queue <= 0)
+            queue = 64 * threads;
+        if(check)
+            checker = new Worker();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<String>> pending = new ArrayDeque<Future<String>>();
+        ArrayDeque<String> pendingMoves = new ArrayDeque<String>();
+        long positions = 0;
+        long start = System.nanoTime();
+
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(input), StandardCharsets.US_ASCII);
+             Writer out = output != null ? Files.newBufferedWriter(Paths.get(output), StandardCharsets.US_ASCII)
+                 : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII))) {
+            String line;
+            while((line = in.readLine()) != null) {
+                String moves = line.trim();
+                if(moves.isEmpty() || moves.startsWith("#"))
+                    continue;
+                // write results in order as the oldest finishes, keeping the
+                // read-ahead bounded
+                if(pending.size() >= queue)
+                    write(out, pendingMoves.poll(), pending.poll());
+                pending.add(executor.submit(() -> workers.get().analyze(moves)));
+                pendingMoves.add(moves);
+                positions ++;
+            }
+            while(!pending.isEmpty())
+                write(out, pendingMoves.poll(), pending.poll());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        EngineStats totals = EngineStats.get();
+        String report = String.format("Analyzed %d positions in %.1f s (%.1f positions/s, %d search nodes)",
+            positions, seconds, positions / seconds, totals.getNodes());
+        // keep stdout clean when the results go there
+        if(output != null)
+            System.out.println(report);
+        else
+            System.err.println(report);
+
+        if(check) {
+            System.err.println("Check: " + differing + " of " + positions + " lines differ from a one-thread run");
+            if(differing > 0)
+                System.exit(1);
+        }
+    }
+
+    /**
+     * method to write the result of a position, checking it first with -check
+     * @param out Writer for results
+     * @param moves String position the result is for
+     * @param result Future of the output line
+     */
+    static void write(Writer out, String moves, Future<String> result)
+        throws IOException, InterruptedException, ExecutionException {
+        String line = result.get();
+        if(checker != null) {
+            String expected = checker.analyze(moves);
+            if(!line.equals(expected)) {
+                differing ++;
+                System.err.print("Differs: " + line + "   one thread: " + expected);
+            }
+        }
+        out.write(line);
+    }
+
+    /**
+     * Board and agents of one worker thread
+     */
+    static class Worker {
+
+        final Board board = new Board();
+        final Minimax xAgent = createAgent();
+        final Minimax oAgent = createAgent();
+
+        /**
+         * method to play out and analyze one position
+         * @param moves String columns played from the empty board
+         * @return String output line for the position
+         */
+        String analyze(String moves) {
+            board.setBoard();
+            for(int i = 0; i < moves.length(); i++) {
+                int col = moves.charAt(i) - '0';
+                if(!board.playing || col < 1 || col > 7 || !board.validMove(col))
+                    return moves + " invalid\n";
+                board.lastHumanMove = col;
+                board.makeMove(col, board.moveCount % 2 == 0);
+            }
+            if(!board.playing)
+                return moves + " over\n";
+
+            // nothing carries over from the positions analyzed before
+            Minimax agent = board.moveCount % 2 == 0 ? xAgent : oAgent;
+            agent.newGame();
+            int col = agent.initAgent(board);
+            SearchStats stats = agent.lastStats;
+            return moves + " " + col + " " + agent.lastScore + " " + stats.nodes + " " + stats.source + "\n";
+        }
+
+        private static Minimax createAgent() {
+            Minimax agent = new Minimax();
+            agent.inPlace = true;
+            agent.instrument = true;
+            agent.depth = depth;
+            agent.timeBudgetMs = moveTime;
+            agent.ttSizeMB = ttSizeMB;
+            if(!useBook)
+                agent.book = null;
+            return agent;
+        }
+    }
+
+    /**
+     * method to read command line options
+     * @param args String array of command line arguments
+     */
+    static void parseArgs(String[] args) {
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "-threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "-queue":
+                    queue = Integer.parseInt(args[++i]);
+                    break;
+                case "-depth":
+                    depth = Integer.parseInt(args[++i]);
+                    break;
+                case "-movetime":
+                    moveTime = Long.parseLong(args[++i]);
+                    break;
+                case "-tt":
+                    ttSizeMB = Integer.parseInt(args[++i]);
+                    break;
+                case "-nobook":
+                    useBook = false;
+                    break;
+                case "-check":
+                    check = true;
+                    break;
+                default:
+                    if(args[i].startsWith("-"))
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                    if(input == null)
+                        input = args[i];
+                    else
+                        output = args[i];
+            }
+        }
+        if(input == null)
+            throw new IllegalArgumentException("Usage: java AIC4_Batch [options] input [output]");
+    }
+}
@@ -0,0 +1,103 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: AIC4_Book.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Driver file to generate the opening book. Walks every opening
+ * in which one side follows the book and the other plays any move, up to the
+ * given ply, and searches each position where the book side is to move with
+ * the in-place search. Both sides are covered, so the book serves an agent
+ * playing X or O. A position and its mirror image are searched once and
+ * share a record. Run as java AIC4_Book [maxPly] [depth] [file]
+ */
+
+public class AIC4_Book {
+
+    static int maxPly = 8;
+    static int depth = 12;
+    static String file = OpeningBook.DEFAULT_FILE;
+
+    static Search search = new Search();
+    static Set<Long> seen = new HashSet<Long>();
+    static long[] keys = new long[1024];
+    static int[] moves = new int[1024];
+    static int[] scores = new int[1024];
+    static int count = 0;
+
+    /**
+     * main function to generate opening book
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length > 0)
+            maxPly = Integer.parseInt(args[0]);
+        if(args.length > 1)
+            depth = Integer.parseInt(args[1]);
+        if(args.length > 2)
+            file = args[2];
+        search.setTableSize(64);
+
+        System.out.println("\nGenerating opening book to ply " + maxPly + " at search depth " + depth + "...");
+        long start = System.nanoTime();
+        for(boolean bookPlayer : new boolean[] {true, false}) {
+            seen.clear();
+            Board board = new Board();
+            board.setBoard();
+            expand(board, bookPlayer);
+        }
+        OpeningBook.write(file, maxPly, keys, moves, scores, count);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%nWrote %d positions to %s in %.1f s%n", count, file, seconds);
+    }
+
+    /**
+     * method to add a position and the openings that follow it to the book
+     * @param board position to expand, searched in place
+     * @param bookPlayer boolean side the book plays for (true is X)
+     */
+    static void expand(Board board, boolean bookPlayer) {
+        int ply = board.bits.moveCount;
+        // a mirror image of a position already seen leads to mirror images of
+        // the openings already added
+        if(ply > maxPly || !board.playing || !seen.add(board.bits.canonicalKey()))
+            return;
+        boolean toMove = ply % 2 == 0;
+        if(toMove == bookPlayer) {
+            search.setAgent(toMove ? "X" : "O");
+            int col = search.bestMove(board, depth);
+            add(board.bits.canonicalKey(), Search.orient(col, board.bits.isMirrored()), search.rootScore);
+            play(board, col, toMove, bookPlayer);
+        } else {
+            for(int col = 1; col <= BitBoard.WIDTH; col++) {
+                if(board.validMove(col))
+                    play(board, col, toMove, bookPlayer);
+            }
+        }
+    }
+
+    static void play(Board board, int col, boolean player, boolean bookPlayer) {
+        board.makeMove(col, player);
+        expand(board, bookPlayer);
+        board.undoMove(col);
+    }
+
+    static void add(long key, int move, int score) {
+        if(count == keys.length) {
+            keys = Arrays.copyOf(keys, count * 2);
+            moves = Arrays.copyOf(moves, count * 2);
+            scores = Arrays.copyOf(scores, count * 2);
+        }
+        keys[count] = key;
+        moves[count] = move;
+        scores[count] = score;
+        count++;
+        if(count % 100 == 0)
+            System.out.print("#");
+    }
+}
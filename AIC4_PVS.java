@@ -0,0 +1,91 @@
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: AIC4_PVS.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Driver file to compare principal variation search with the
+ * alpha-beta search. Searches a fixed set of positions to the same depth with
+ * plain alpha-beta, with PVS and aspiration windows, and with late move
+ * reductions added, each on a fresh Search, and reports nodes, time and
+ * whether the chosen move and score match alpha-beta's. PVS node counts
+ * include the shallower iterations it deepens through. Run as
+ * java AIC4_PVS [depth]
+ */
+
+public class AIC4_PVS {
+
+    // positions as columns played from the empty board, X first
+    static String[] positions = {"4453", "443322", "3344", "4436", "7145", "2534", "4444", "1266",
+        "44", "43", "4455", "3453", "5433", "434344", "1234567", "445566", "3545", "7711",
+        "44443", "2233", "455434", "6543", "4126", "36271"};
+
+    static final String[] MODES = {"alpha-beta", "pvs", "pvs+lmr"};
+
+    /**
+     * main function to run the comparison
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+
+        // warm up so the first mode is not charged for compilation
+        for(int mode = 0; mode < MODES.length; mode++)
+            run(depth - 2, mode, new int[positions.length], new int[positions.length], new long[positions.length]);
+
+        int[][] moves = new int[MODES.length][positions.length];
+        int[][] scores = new int[MODES.length][positions.length];
+        long[][] nodes = new long[MODES.length][positions.length];
+        long[] times = new long[MODES.length];
+        for(int mode = 0; mode < MODES.length; mode++) {
+            long start = System.nanoTime();
+            run(depth, mode, moves[mode], scores[mode], nodes[mode]);
+            times[mode] = System.nanoTime() - start;
+        }
+
+        System.out.println("\nNodes at depth " + depth + " over " + positions.length + " positions:");
+        System.out.println("position\tab move\tab nodes\tpvs move\tpvs nodes\tlmr move\tlmr nodes");
+        for(int i = 0; i < positions.length; i++) {
+            System.out.printf("%-8s\t%d\t%d\t%d\t%d\t%d\t%d%n", positions[i], moves[0][i], nodes[0][i],
+                moves[1][i], nodes[1][i], moves[2][i], nodes[2][i]);
+        }
+
+        System.out.println("\nmode\t\tms\tnodes\tof ab\tsame moves\tsame scores");
+        for(int mode = 0; mode < MODES.length; mode++) {
+            long total = 0, abTotal = 0;
+            int sameMoves = 0, sameScores = 0;
+            for(int i = 0; i < positions.length; i++) {
+                total += nodes[mode][i];
+                abTotal += nodes[0][i];
+                if(moves[mode][i] == moves[0][i])
+                    sameMoves ++;
+                if(scores[mode][i] == scores[0][i])
+                    sameScores ++;
+            }
+            System.out.printf("%-10s\t%d\t%d\t%.2f\t%d/%d\t\t%d/%d%n", MODES[mode], times[mode] / 1000000, total,
+                (double) total / abTotal, sameMoves, positions.length, sameScores, positions.length);
+        }
+    }
+
+    /**
+     * method to search every position in one mode
+     * @param depth int search depth
+     * @param mode int index into MODES
+     * @param moves int array to store chosen moves in
+     * @param scores int array to store root scores in
+     * @param nodes long array to store node counts in
+     */
+    static void run(int depth, int mode, int[] moves, int[] scores, long[] nodes) {
+        for(int i = 0; i < positions.length; i++) {
+            Board board = AIC4_Speedup.position(positions[i]);
+            Search search = new Search();
+            search.setAgent(board.moveCount % 2 == 0 ? "X" : "O");
+            search.setTableSize(16);
+            search.pvs = mode > 0;
+            search.lateMoveReductions = mode == 2;
+            moves[i] = search.bestMove(board, depth);
+            scores[i] = search.rootScore;
+            nodes[i] = search.nodes;
+        }
+    }
+}
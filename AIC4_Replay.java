@@ -0,0 +1,168 @@
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: AIC4_Replay.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Replays a game record file written by AIC4_Sim -record. Every
+ * game is played back through Board, checking that each move is legal and
+ * that the recorded result is what the board reaches, and the totals are
+ * printed. Options:
+ *   -losses      print the moves of every game the X agent won, one per
+ *                line in the form AIC4_Batch reads
+ *   -latency     also report ms per move of each side from the recorded times
+ *   -rerun       ask a Minimax agent for every move a minimax side played and
+ *                count how many it still plays - a regression check on the
+ *                exact same games
+ *   -depth D     search depth of the rerun agent (default 5)
+ *   -inplace     rerun agent uses the in-place search
+ *   -nobook      rerun agent ignores the opening book
+ */
+
+public class AIC4_Replay {
+
+    public static boolean losses = false;
+    public static boolean latency = false;
+    public static boolean rerun = false;
+    public static int depth = 5;
+    public static boolean inPlace = false;
+    public static boolean useBook = true;
+    public static String input;
+
+    /**
+     * main function to replay every game of a record file
+     */
+    public static void main(String[] args) throws IOException {
+        parseArgs(args);
+        GameRecordReader in = new GameRecordReader(input);
+        GameRecord record = latency ? new GameRecord() : null;
+        Minimax agent = rerun ? createAgent() : null;
+        Geometry geo = Geometry.STANDARD;
+        Board board = geo.newBoard();
+
+        long games = 0, moves = 0, bad = 0, reran = 0, same = 0, changedGames = 0;
+        long[] results = new long[3];
+        long[] sideMicros = new long[2], sideMoves = new long[2];
+        long start = System.nanoTime();
+
+        while(in.next()) {
+            games ++;
+            if(!in.playedOn(geo)) {
+                GameRecord header = new GameRecord();
+                in.read(header);
+                geo = header.geometry();
+                board = geo.newBoard();
+            }
+            board.setBoard();
+            board.lastHumanMove = 1;
+            if(agent != null)
+                agent.newGame();
+            int count = in.moveCount();
+            boolean legal = true, changed = false;
+            for(int i = 0; i < count && legal; i++) {
+                int col = in.move(i);
+                boolean x = i % 2 == 0;
+                legal = board.playing && board.validMove(col);
+                if(!legal)
+                    break;
+                if(agent != null && in.agent(x) == GameRecord.MINIMAX) {
+                    int played = agent.initAgent(board.copyBoard());
+                    reran ++;
+                    if(played == col)
+                        same ++;
+                    else
+                        changed = true;
+                }
+                if(x)
+                    board.lastHumanMove = col;
+                board.makeMove(col, x);
+            }
+            moves += count;
+            int result = board.winningPlayer == null ? GameRecord.TIE
+                : board.winningPlayer.equals("X") ? GameRecord.X_WON : GameRecord.O_WON;
+            if(!legal || board.playing || result != in.result()) {
+                bad ++;
+                continue;
+            }
+            results[result] ++;
+            if(changed)
+                changedGames ++;
+            if(losses && result == GameRecord.X_WON) {
+                StringBuilder s = new StringBuilder(count);
+                for(int i = 0; i < count; i++)
+                    s.append(in.move(i));
+                System.out.println(s);
+            }
+            if(record != null) {
+                in.read(record);
+                for(int i = 0; i < count; i++) {
+                    sideMicros[i % 2] += record.latencyMicros[i];
+                    sideMoves[i % 2] ++;
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // totals go to stderr when stdout holds the lost games
+        PrintStream out = losses ? System.err : System.out;
+        out.printf("Replayed %d games (%d moves) in %.2f s (%.0f games/s)%n", games, moves, seconds, games / seconds);
+        out.printf("X won %d, O won %d, %d ties, %d games invalid%n",
+            results[GameRecord.X_WON], results[GameRecord.O_WON], results[GameRecord.TIE], bad);
+        if(in.damaged)
+            out.println("Stopped at a damaged or incomplete block after " + in.blocks + " blocks");
+        if(record != null)
+            out.printf("Recorded ms per move: X %.2f, O %.2f%n", sideMicros[0] / 1e3 / Math.max(1, sideMoves[0]),
+                sideMicros[1] / 1e3 / Math.max(1, sideMoves[1]));
+        if(agent != null)
+            out.printf("Rerun: %d of %d minimax moves unchanged (%.1f%%), %d games with a changed move%n",
+                same, reran, 100.0 * same / Math.max(1, reran), changedGames);
+    }
+
+    private static Minimax createAgent() {
+        Minimax agent = new Minimax();
+        agent.depth = depth;
+        agent.inPlace = inPlace;
+        if(!useBook)
+            agent.book = null;
+        return agent;
+    }
+
+    /**
+     * method to read command line options
+     * @param args String array of command line arguments
+     */
+    static void parseArgs(String[] args) {
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "-losses":
+                    losses = true;
+                    break;
+                case "-latency":
+                    latency = true;
+                    break;
+                case "-rerun":
+                    rerun = true;
+                    break;
+                case "-depth":
+                    depth = Integer.parseInt(args[++i]);
+                    break;
+                case "-inplace":
+                    inPlace = true;
+                    break;
+                case "-nobook":
+                    useBook = false;
+                    break;
+                default:
+                    if(args[i].startsWith("-"))
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                    input = args[i];
+            }
+        }
+        if(input == null)
+            throw new IllegalArgumentException("Usage: java AIC4_Replay [options] games.rec");
+    }
+}
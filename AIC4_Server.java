@@ -0,0 +1,196 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: AIC4_Server.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Headless engine server. Speaks the line protocol of
+ * EngineSession.java on stdin/stdout and, with -port, to any number of
+ * clients on a TCP socket bound to the loopback address. Nothing but protocol
+ * replies is written to stdout; the server's own messages go to stderr.
+ *
+ * Searches of every client run on one fixed pool of worker threads. Each
+ * worker keeps its own board and agents, one per side, for as long as the
+ * server runs, so tables, book pages and compiled code stay warm from request
+ * to request and memory does not grow with the number of clients. A client
+ * has at most one search on the pool at a time and at most -queue waiting,
+ * and at most -clients are connected at once. Options:
+ *   -port P      also listen on 127.0.0.1 port P (0 picks a free port, printed
+ *                to stderr)
+ *   -nostdio     serve the socket only, not stdin/stdout
+ *   -workers N   searches to run at once (default available processors)
+ *   -clients N   clients connected at once, more are turned away (default 64)
+ *   -queue N     go commands a client may have waiting (default 16)
+ *   -depth D     search depth of go without options (default 9)
+ *   -movetime M  search go without options for M ms instead of to a depth
+ *   -tt MB       transposition table size per agent (default 16)
+ *   -nobook      ignore the opening book
+ * Agents search in place with principal variation search, without late move
+ * reductions so scores are exact, deepening to the depth asked for so that a
+ * stop still has a move to answer with.
+ */
+
+public class AIC4_Server {
+
+    public static int port = -1;
+    public static boolean stdio = true;
+    public static int workers = Runtime.getRuntime().availableProcessors();
+    public static int clients = 64;
+    public static int queue = 16;
+    public static int depth = 9;
+    public static long moveTime = 0;
+    public static int ttSizeMB = 16;
+    public static boolean useBook = true;
+
+    // per-worker board and agents, X and O kept apart so neither has its
+    // tables cleared by a change of side
+    static final ThreadLocal<Engine> engines = ThreadLocal.withInitial(Engine::new);
+
+    /**
+     * main function to serve clients until stdin closes, or for ever with
+     * -nostdio
+     */
+    public static void main(String[] args) throws IOException {
+        parseArgs(args);
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "engine-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        if(port >= 0) {
+            ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+            System.err.println("Listening on " + server.getLocalSocketAddress());
+            if(!stdio) {
+                accept(server, pool);
+                return;
+            }
+            Thread acceptor = new Thread(() -> accept(server, pool), "accept");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII));
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII));
+        new EngineSession(in, out, pool).run();
+    }
+
+    /**
+     * method to accept socket clients, each read on a thread of its own
+     * @param server ServerSocket to accept on
+     * @param pool ExecutorService to search on
+     */
+    static void accept(ServerSocket server, ExecutorService pool) {
+        Semaphore slots = new Semaphore(clients);
+        while(true) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                System.err.println("Stopped accepting clients: " + e.getMessage());
+                return;
+            }
+            if(!slots.tryAcquire()) {
+                try (Socket busy = socket) {
+                    busy.getOutputStream().write("error server busy\n".getBytes(StandardCharsets.US_ASCII));
+                } catch (IOException e) {
+                    // turned away either way
+                }
+                continue;
+            }
+            Thread reader = new Thread(() -> {
+                try (Socket client = socket) {
+                    BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+                    Writer out = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.US_ASCII));
+                    new EngineSession(in, out, pool).run();
+                } catch (IOException e) {
+                    // client went away
+                } finally {
+                    slots.release();
+                }
+            }, "client " + socket.getRemoteSocketAddress());
+            reader.setDaemon(true);
+            reader.start();
+        }
+    }
+
+    /**
+     * Board and agents of one worker thread
+     */
+    static class Engine {
+
+        final Board board = new Board();
+        final Minimax xAgent = createAgent();
+        final Minimax oAgent = createAgent();
+
+        private static Minimax createAgent() {
+            Minimax agent = new Minimax();
+            agent.inPlace = true;
+            agent.pvs = true;
+            agent.lateMoveReductions = false;
+            agent.instrument = true;
+            agent.ttSizeMB = ttSizeMB;
+            if(!useBook)
+                agent.book = null;
+            return agent;
+        }
+    }
+
+    /**
+     * method to read command line options
+     * @param args String array of command line arguments
+     */
+    static void parseArgs(String[] args) {
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "-port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "-nostdio":
+                    stdio = false;
+                    break;
+                case "-workers":
+                    workers = Integer.parseInt(args[++i]);
+                    break;
+                case "-clients":
+                    clients = Integer.parseInt(args[++i]);
+                    break;
+                case "-queue":
+                    queue = Integer.parseInt(args[++i]);
+                    break;
+                case "-depth":
+                    depth = Integer.parseInt(args[++i]);
+                    break;
+                case "-movetime":
+                    moveTime = Long.parseLong(args[++i]);
+                    break;
+                case "-tt":
+                    ttSizeMB = Integer.parseInt(args[++i]);
+                    break;
+                case "-nobook":
+                    useBook = false;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if(!stdio && port < 0)
+            throw new IllegalArgumentException("-nostdio needs -port");
+    }
+}
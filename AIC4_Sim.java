@@ -1,79 +1,365 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * CS311 Artificial Intelligence Final Project - Spring 2020
- * 
- * File: AIC4_Sim.java 
- * Authors: Calder Birdsey and Brandon Choe 
- * Updated: 5/15/20
- * 
- * Description: Driver file for Connect-4 Simulation of two AI players. Runs a 
- * simulation of given number of games between an advanced AI agent and a greedy 
- * agent, reporting statistics on the simulation. 
+ *
+ * File: AIC4_Sim.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Driver file for Connect-4 Simulation of two AI players. Runs a
+ * simulation of given number of games between an advanced AI agent and a greedy
+ * agent, reporting statistics on the simulation.
+ *
+ * Games can be run in parallel as independent tasks. Each game seeds its greedy
+ * agent from the base seed and the game number, so a run with the same seed
+ * gives the same results at any thread count. Options:
+ *   -games N     number of games to simulate (default 100)
+ *   -threads N   games to run at once (default 1)
+ *   -virtual     run each game on a virtual thread (Java 21+)
+ *   -seed S      base seed (default random, printed at start)
+ *   -inplace     advanced AI uses the in-place search
+ *   -pvs         in-place search uses principal variation search (implies -inplace)
+ *   -nobook      advanced AI ignores the opening book (book.bin)
+ *   -stats       instrument the advanced AI and print search percentiles
+ *   -board G     play on another board, rows x cols [x connect] (e.g. 7x8x5)
+ *   -mcts        advanced AI is the Monte Carlo tree search agent (MCTS.java)
+ *   -movetime M  advanced AI budget in ms per move (MCTS, or minimax with -inplace)
+ *   -playouts N  MCTS plays N playouts per move instead of a time budget
+ *   -mcts-threads N  threads per MCTS search (default 1)
+ *   -cache MB    advanced minimax AI keeps its moves in a persistent position
+ *                cache of MB megabytes, shared with other runs (PositionCache.java)
+ *   -cache-file F  cache file (default positions.cache)
+ *   -record F    append every game to game record file F (GameRecordWriter.java),
+ *                for replay with AIC4_Replay
  */
- 
+
 public class AIC4_Sim {
-    
+
     // init game
-    public static boolean humanTurn = true; 
-    public static int simCount = 100; 
-    public static int ties = 0; 
-    public static int greedyWin = 0; 
-    public static int smartWin = 0; 
-    public static int moveCountSum = 0; 
+    public static int simCount = 100;
+    public static int threads = 1;
+    public static boolean virtual = false;
+    public static boolean inPlace = false;
+    public static boolean pvs = false;
+    public static boolean stats = false;
+    public static boolean useBook = true;
+    public static long seed = new Random().nextLong();
+    public static Geometry geometry = Geometry.STANDARD;
+    public static boolean mcts = false;
+    public static long moveTime = 0;
+    public static long playouts = 0;
+    public static int mctsThreads = 1;
+    public static int cacheMB = 0;
+    public static String cacheFile = PositionCache.DEFAULT_FILE;
+    static PositionCache cache;
+    public static String recordFile;
+    static GameRecordWriter recorder;
+    static final ThreadLocal<GameRecord> records = ThreadLocal.withInitial(GameRecord::new);
+
+    // results, added to by every game task
+    public static LongAdder ties = new LongAdder();
+    public static LongAdder greedyWin = new LongAdder();
+    public static LongAdder smartWin = new LongAdder();
+    public static LongAdder moveCountSum = new LongAdder();
+    public static LongAdder smartMoves = new LongAdder();
+    public static LongAdder smartNanos = new LongAdder();
+
+    // idle agents for game tasks to reuse - keeps search tables warm and off
+    // the allocation path no matter how tasks map to threads
+    static ConcurrentLinkedQueue<Minimax> agents = new ConcurrentLinkedQueue<Minimax>();
+    static ConcurrentLinkedQueue<MCTS> mctsAgents = new ConcurrentLinkedQueue<MCTS>();
+
+    // per-search samples as {ms, nodes, branching factor, depth} with -stats
+    static ConcurrentLinkedQueue<double[]> samples = new ConcurrentLinkedQueue<double[]>();
+
+    // per-game reuse rates as {root hit rate, table reuse rate} with -stats
+    static ConcurrentLinkedQueue<double[]> reuseSamples = new ConcurrentLinkedQueue<double[]>();
 
     /**
      * main function to run CLI connect-4 game
      */
-    public static void main(String[] args) {
-        System.out.println("\nAI Connect-4 Statistical Simulator: Simulating " + simCount + " games between greedy AI and advanced minimax AI...");
-        int gameCount = 0; 
-        while(gameCount < simCount) {
-            int turn = 0; 
-            Board board = new Board(); 
-            Minimax smartAgent = new Minimax(); 
-            GreedyAI greedyAgent = new GreedyAI(); 
-            board.setBoard();  
-            board.lastHumanMove = 1;
-
-            //simulate game
-            while(board.playing) {
-                
-                if(turn == 0) {
-                    // simualte "human" player 
-                    int col = greedyAgent.initAgent(board); 
-                    board.lastHumanMove = col; 
-                    board.makeMove(col, true);
-                    turn = 1; 
-                } else {
-                    smartAgent.initAgent(board); 
-                    turn = 0; 
-                }
-            }
-
-            // store move count 
-            moveCountSum += board.moveCount;  
+    public static void main(String[] args) throws InterruptedException, IOException {
+        parseArgs(args);
+        if(cacheMB > 0)
+            cache = new PositionCache(cacheFile, cacheMB);
+        if(recordFile != null)
+            recorder = new GameRecordWriter(recordFile);
+        System.out.println("\nAI Connect-4 Statistical Simulator: Simulating " + simCount + " games between greedy AI and advanced "
+            + (mcts ? "MCTS" : "minimax") + " AI...");
+        System.out.println("Seed " + seed + ", " + geometry + ", " + (virtual ? "virtual threads" : threads + " thread(s)"));
+        long start = System.nanoTime();
 
-            // store winner
-            if(board.boardFull) {
-                ties ++; 
-            } else {
-                if(board.winningPlayer.equals("O"))
-                    smartWin ++; 
-                else 
-                    greedyWin++; 
+        if(threads <= 1 && !virtual) {
+            for(int gameCount = 0; gameCount < simCount; gameCount++) {
+                playGame(gameCount);
+            }
+        } else {
+            ExecutorService executor = createExecutor();
+            for(int gameCount = 0; gameCount < simCount; gameCount++) {
+                final int game = gameCount;
+                executor.execute(() -> playGame(game));
             }
-            System.out.print("#");
-            gameCount ++; 
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
         }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if(recorder != null)
+            recorder.close();
 
         // get average moves
-        double avgMoves = moveCountSum / simCount; 
+        double avgMoves = (double) moveCountSum.sum() / simCount;
 
         // return statistics
         System.out.println("\nSimulation complete...");
         System.out.println("Performance statistics:");
-        System.out.println("Advanced AI won " + smartWin + " out of " + simCount + " games.");
-        System.out.println("Greedy AI won " + greedyWin + " out of " + simCount + " games.");
-        System.out.println(ties + " tie games occured");
+        System.out.println("Advanced AI won " + smartWin.sum() + " out of " + simCount + " games.");
+        System.out.println("Greedy AI won " + greedyWin.sum() + " out of " + simCount + " games.");
+        System.out.println(ties.sum() + " tie games occured");
         System.out.println("The average move count for this round was " + avgMoves + " moves");
+        System.out.printf("Advanced AI took %.2f ms per move%n", smartNanos.sum() / 1e6 / Math.max(1, smartMoves.sum()));
+        System.out.printf("Simulated %d games in %.1f s (%.1f games/s)%n", simCount, seconds, simCount / seconds);
+        for(MCTS agent : mctsAgents)
+            agent.shutdown();
+        if(cache != null)
+            System.out.printf("Position cache (%d MB): %d hits, %d misses (%.1f%% hit rate), %d stores, %d evictions%n",
+                cache.sizeMB, cache.hits.sum(), cache.misses.sum(), 100 * cache.hitRate(), cache.stores.sum(),
+                cache.evictions.sum());
+        if(stats)
+            printStats();
+    }
+
+    /**
+     * method to print percentiles of the search samples and shortcut totals
+     */
+    static void printStats() {
+        EngineStats totals = EngineStats.get();
+        System.out.println("\nSearch statistics (" + totals.getSearches() + " searches, "
+            + totals.getOpeningShortcuts() + " opening and " + totals.getBlockingShortcuts() + " blocking shortcuts):");
+        System.out.println("\tp50\tp90\tp99\tmax");
+        String[] names = {"ms", "nodes", "EBF", "depth"};
+        double[][] columns = new double[names.length][samples.size()];
+        int n = 0;
+        for(double[] sample : samples) {
+            for(int k = 0; k < names.length; k++)
+                columns[k][n] = sample[k];
+            n++;
+        }
+        for(int k = 0; k < names.length; k++) {
+            double[] sorted = Arrays.copyOf(columns[k], n);
+            Arrays.sort(sorted);
+            System.out.printf("%s\t%.2f\t%.2f\t%.2f\t%.2f%n", names[k], SearchStats.percentile(sorted, 50),
+                SearchStats.percentile(sorted, 90), SearchStats.percentile(sorted, 99), SearchStats.percentile(sorted, 100));
+        }
+        System.out.printf("Cutoffs on first move %.1f%%, %.0f nodes/s%n",
+            100 * totals.getFirstMoveCutoffRate(), totals.getNodesPerSecond());
+        System.out.printf("%d endgame solves, %.2f ms average%n", totals.getSolves(), totals.getAverageSolveMillis());
+        if(!reuseSamples.isEmpty()) {
+            System.out.println("\nSearch reuse per game (%)\tp10\tp50\tp90");
+            String[] reuseNames = {"root found in table", "probes hit earlier search"};
+            for(int k = 0; k < reuseNames.length; k++) {
+                double[] sorted = new double[reuseSamples.size()];
+                int i = 0;
+                for(double[] sample : reuseSamples)
+                    sorted[i++] = sample[k];
+                Arrays.sort(sorted);
+                System.out.printf("%s\t%.1f\t%.1f\t%.1f%n", reuseNames[k], SearchStats.percentile(sorted, 10),
+                    SearchStats.percentile(sorted, 50), SearchStats.percentile(sorted, 90));
+            }
+        }
+    }
+
+    /**
+     * method to simulate a single game between greedy AI and advanced AI and
+     * add its result to the totals
+     * @param game int game number, used to seed the greedy agent
+     */
+    static void playGame(int game) {
+        int turn = 0;
+        Board board = geometry.newBoard();
+        Minimax smartAgent = mcts ? null : agents.poll();
+        MCTS mctsAgent = mcts ? mctsAgents.poll() : null;
+        if(mcts) {
+            if(mctsAgent == null) {
+                mctsAgent = new MCTS();
+                mctsAgent.threads = mctsThreads;
+                mctsAgent.playouts = playouts;
+                if(moveTime > 0)
+                    mctsAgent.timeBudgetMs = moveTime;
+            }
+            mctsAgent.seed = seed + game;
+        } else {
+            if(smartAgent == null) {
+                smartAgent = new Minimax();
+                smartAgent.inPlace = inPlace;
+                smartAgent.pvs = pvs;
+                smartAgent.instrument = stats;
+                smartAgent.timeBudgetMs = moveTime;
+                smartAgent.cache = cache;
+                if(!useBook)
+                    smartAgent.book = null;
+            }
+            smartAgent.newGame();
+        }
+        GreedyAI greedyAgent = new GreedyAI();
+        greedyAgent.random = new Random(seed + game);
+        board.setBoard();
+        board.lastHumanMove = 1;
+        GameRecord record = recorder != null ? records.get() : null;
+        if(record != null) {
+            record.clear();
+            record.setGeometry(geometry);
+            record.seed = seed + game;
+            record.xAgent = GameRecord.GREEDY;
+            record.oAgent = mcts ? GameRecord.MCTS : GameRecord.MINIMAX;
+        }
+
+        //simulate game
+        while(board.playing) {
+
+            if(turn == 0) {
+                // simualte "human" player
+                long start = System.nanoTime();
+                int col = greedyAgent.initAgent(board);
+                if(record != null)
+                    record.addMove(col, System.nanoTime() - start);
+                board.lastHumanMove = col;
+                board.makeMove(col, true);
+                turn = 1;
+            } else {
+                long start = System.nanoTime();
+                int col;
+                if(mcts) {
+                    col = mctsAgent.initAgent(board);
+                } else {
+                    col = smartAgent.initAgent(board);
+                    if(stats && SearchStats.SEARCH.equals(smartAgent.lastStats.source)) {
+                        SearchStats last = smartAgent.lastStats;
+                        samples.add(new double[] {last.elapsedNanos / 1e6, last.nodes, last.branchingFactor(), last.depth});
+                    }
+                }
+                long nanos = System.nanoTime() - start;
+                if(record != null)
+                    record.addMove(col, nanos);
+                smartNanos.add(nanos);
+                smartMoves.increment();
+                turn = 0;
+            }
+        }
+        if(mcts) {
+            mctsAgents.offer(mctsAgent);
+        } else {
+            if(stats && smartAgent.gameSearches > 0)
+                reuseSamples.add(new double[] {100 * smartAgent.rootHitRate(), 100 * smartAgent.reuseHitRate()});
+            agents.offer(smartAgent);
+        }
+
+        // store move count
+        moveCountSum.add(board.moveCount);
+        if(record != null) {
+            record.setResult(board);
+            try {
+                recorder.append(record);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // store winner
+        if(board.boardFull) {
+            ties.increment();
+        } else {
+            if(board.winningPlayer.equals("O"))
+                smartWin.increment();
+            else
+                greedyWin.increment();
+        }
+        System.out.print("#");
+    }
+
+    /**
+     * method to create executor for game tasks - virtual threads are looked up
+     * reflectively so the simulator still builds and runs on older JDKs
+     * @return ExecutorService to run games on
+     */
+    static ExecutorService createExecutor() {
+        if(virtual) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.out.println("Virtual threads not supported by this JVM, using " + threads + " platform thread(s)");
+            }
+        }
+        return Executors.newFixedThreadPool(Math.max(1, threads));
+    }
+
+    /**
+     * method to read command line options
+     * @param args String array of command line arguments
+     */
+    static void parseArgs(String[] args) {
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "-games":
+                    simCount = Integer.parseInt(args[++i]);
+                    break;
+                case "-threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "-seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "-virtual":
+                    virtual = true;
+                    break;
+                case "-inplace":
+                    inPlace = true;
+                    break;
+                case "-pvs":
+                    inPlace = true;
+                    pvs = true;
+                    break;
+                case "-nobook":
+                    useBook = false;
+                    break;
+                case "-stats":
+                    stats = true;
+                    break;
+                case "-board":
+                    geometry = Geometry.parse(args[++i]);
+                    break;
+                case "-mcts":
+                    mcts = true;
+                    break;
+                case "-movetime":
+                    moveTime = Long.parseLong(args[++i]);
+                    break;
+                case "-playouts":
+                    playouts = Long.parseLong(args[++i]);
+                    break;
+                case "-mcts-threads":
+                    mctsThreads = Integer.parseInt(args[++i]);
+                    break;
+                case "-cache":
+                    cacheMB = Integer.parseInt(args[++i]);
+                    break;
+                case "-cache-file":
+                    cacheFile = args[++i];
+                    break;
+                case "-record":
+                    recordFile = args[++i];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,118 @@
+import java.util.Arrays;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: AIC4_Speedup.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Driver file to measure parallel search speedup. Searches a fixed
+ * set of positions with the serial Search and with ParallelSearch at 2, 3...
+ * threads, checks every thread count picks the same moves, and reports time
+ * and speedup per thread count. The 1 thread row is a serial Search with the
+ * same-depth table cutoffs the parallel workers use; the serial row is the
+ * default Search, which also cuts off on deeper entries - speedups are given
+ * over both. Run as java AIC4_Speedup [depth] [maxThreads]
+ */
+
+public class AIC4_Speedup {
+
+    // positions as columns played from the empty board, X first
+    static String[] positions = {"4453", "443322", "3344", "4436", "7145", "2534", "4444", "1266"};
+
+    /**
+     * main function to run speedup measurement
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.println("\nParallel search speedup at depth " + depth + " over " + positions.length + " positions:");
+        System.out.println("threads\tms\tnodes\tspeedup\tover serial\tsame moves");
+
+        // warm up so the first row is not charged for compilation
+        run(depth - 2, 0, null);
+        run(depth - 2, 1, null);
+        run(depth - 2, Math.max(2, maxThreads), null);
+
+        int[] serialMoves = new int[positions.length];
+        long start = System.nanoTime();
+        long serialNodes = run(depth, 0, serialMoves);
+        long serialTime = System.nanoTime() - start;
+        System.out.printf("serial\t%d\t%d\t\t1.00%n", serialTime / 1000000, serialNodes);
+
+        int[] exactMoves = new int[positions.length];
+        long exactTime = 0;
+        for(int threads = 1; threads <= maxThreads; threads++) {
+            int[] moves = new int[positions.length];
+            start = System.nanoTime();
+            long nodes = run(depth, threads, moves);
+            long time = System.nanoTime() - start;
+            if(threads == 1) {
+                exactTime = time;
+                exactMoves = moves;
+            }
+            boolean same = Arrays.equals(moves, exactMoves);
+            System.out.printf("%d\t%d\t%d\t%.2f\t%.2f\t\t%s%n", threads, time / 1000000, nodes,
+                (double) exactTime / time, (double) serialTime / time, same ? "yes" : "NO");
+        }
+        int differ = 0;
+        for(int i = 0; i < positions.length; i++) {
+            if(serialMoves[i] != exactMoves[i])
+                differ ++;
+        }
+        System.out.println("Serial moves differing from same-depth cutoff moves: " + differ + " of " + positions.length);
+    }
+
+    /**
+     * method to search every position with the given number of threads
+     * @param depth int search depth
+     * @param threads int thread count, 1 for a serial Search with same-depth
+     * cutoffs, 0 for the default serial Search
+     * @param moves int array to store chosen moves in, or null
+     * @return long total nodes searched
+     */
+    static long run(int depth, int threads, int[] moves) {
+        long nodes = 0;
+        ParallelSearch parallel = threads > 1 ? new ParallelSearch(threads) : null;
+        for(int i = 0; i < positions.length; i++) {
+            Board board = position(positions[i]);
+            int col;
+            if(parallel == null) {
+                Search search = new Search();
+                search.exactDepthCutoffs = threads == 1;
+                search.setAgent(board.moveCount % 2 == 0 ? "X" : "O");
+                search.setTableSize(16);
+                col = search.bestMove(board, depth);
+                nodes += search.nodes;
+            } else {
+                parallel.setAgent(board.moveCount % 2 == 0 ? "X" : "O");
+                parallel.setTableSize(16);
+                col = parallel.bestMove(board, depth);
+                nodes += parallel.nodes;
+            }
+            if(moves != null)
+                moves[i] = col;
+        }
+        if(parallel != null)
+            parallel.shutdown();
+        return nodes;
+    }
+
+    /**
+     * method to build a board from a sequence of columns
+     * @param moves String of columns (1 - 7), X moves first
+     * @return Board position after moves
+     */
+    static Board position(String moves) {
+        Board board = new Board();
+        board.setBoard();
+        boolean player = true;
+        for(char c : moves.toCharArray()) {
+            board.makeMove(c - '0', player);
+            player = !player;
+        }
+        return board;
+    }
+}
@@ -0,0 +1,454 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: AIC4_Tournament.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Round-robin tournament between agent configurations. Every
+ * pair of configurations plays -games games, in pairs from the same random
+ * opening with colors swapped, so neither the first move nor the opening
+ * favours either side. Games are spread over a thread pool and results are
+ * added to LongAdders, so workers never wait on each other. At the end an
+ * Elo table is printed with 95% error bars, score and ms per move, followed
+ * by the score of every pairing.
+ *
+ * Configurations are given as kind[:option,...], e.g.
+ *   minimax:depth=7   minimax:movetime=50,nobook   mcts:playouts=20000   greedy
+ * Options of minimax are depth, movetime, tt, solver (empty squares), nobook,
+ * noorder, nodeeval, noreuse, pvs (principal variation search with late move
+ * reductions), nolmr (pvs without the reductions) and tree (the Node tree
+ * search instead of the default in-place search). Options
+ * of mcts are movetime, playouts, threads, c (exploration) and vl (virtual
+ * loss). Any configuration takes name=N for the table. Tournament options:
+ *   -games N     games per pairing, rounded up to even (default 20)
+ *   -threads N   games to run at once (default available processors)
+ *   -seed S      base seed for openings and agents (default random)
+ *   -opening K   random plies before the agents take over (default 2)
+ *
+ * Ratings are the maximum likelihood Bradley-Terry fit of the results, with
+ * a draw counted as half a win and one virtual draw added to every pairing
+ * so that a perfect score still has a finite rating. The average rating is 0.
+ */
+
+public class AIC4_Tournament {
+
+    public static int gamesPerPair = 20;
+    public static int threads = Runtime.getRuntime().availableProcessors();
+    public static long seed = new Random().nextLong();
+    public static int openingPlies = 2;
+    public static List<Entrant> entrants = new ArrayList<Entrant>();
+
+    // per-thread agents, one for each entrant
+    static final ThreadLocal<Player[]> players = ThreadLocal.withInitial(AIC4_Tournament::createPlayers);
+
+    /**
+     * main function to play the round robin and print the table
+     */
+    public static void main(String[] args) throws InterruptedException {
+        parseArgs(args);
+        // options are checked here rather than on the first worker to use them
+        createPlayers();
+        int n = entrants.size();
+        System.out.println("Round robin of " + n + " configurations, " + gamesPerPair + " games per pairing, seed "
+            + seed + ", " + threads + " thread(s)");
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for(int a = 0; a < n; a++) {
+            for(int b = a + 1; b < n; b++) {
+                for(int game = 0; game < gamesPerPair; game++) {
+                    final int first = a, second = b, g = game;
+                    executor.execute(() -> playGame(first, second, g));
+                }
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games in %.1f s%n%n", n * (n - 1) / 2 * gamesPerPair, seconds);
+        printTable();
+    }
+
+    /**
+     * method to play one game of a pairing and add its result - games 2k and
+     * 2k + 1 share an opening, with colors swapped
+     * @param a int index of first entrant
+     * @param b int index of second entrant
+     * @param game int game number within the pairing
+     */
+    static void playGame(int a, int b, int game) {
+        Player[] mine = players.get();
+        boolean aIsX = game % 2 == 0;
+        Player x = mine[aIsX ? a : b], o = mine[aIsX ? b : a];
+        long gameSeed = seed + ((long) a * entrants.size() + b) * gamesPerPair + game;
+        x.newGame(gameSeed);
+        o.newGame(gameSeed);
+
+        Board board = new Board();
+        board.setBoard();
+        board.lastHumanMove = 1;
+        Random opening = new Random(seed + ((long) a * entrants.size() + b) * gamesPerPair + game / 2);
+        for(int ply = 0; ply < openingPlies && board.playing; ply++) {
+            int col;
+            do {
+                col = 1 + opening.nextInt(BitBoard.WIDTH);
+            } while(!board.validMove(col));
+            board.lastHumanMove = col;
+            board.makeMove(col, board.moveCount % 2 == 0);
+        }
+        while(board.playing) {
+            Player p = board.moveCount % 2 == 0 ? x : o;
+            p.move(board);
+        }
+
+        // score in half points for a, who played X in even games
+        int half = board.winningPlayer == null ? 1 : board.winningPlayer.equals("X") == aIsX ? 2 : 0;
+        Entrant ea = entrants.get(a), eb = entrants.get(b);
+        ea.halfPoints[b].add(half);
+        eb.halfPoints[a].add(2 - half);
+        ea.games[b].increment();
+        eb.games[a].increment();
+    }
+
+    /**
+     * method to fit ratings and print the table and crosstable
+     */
+    static void printTable() {
+        int n = entrants.size();
+        double[][] games = new double[n][n];
+        double[][] wins = new double[n][n];
+        for(int i = 0; i < n; i++) {
+            for(int j = 0; j < n; j++) {
+                if(i != j) {
+                    games[i][j] = entrants.get(i).games[j].sum();
+                    wins[i][j] = entrants.get(i).halfPoints[j].sum() / 2.0;
+                }
+            }
+        }
+        double[] elo = fitElo(games, wins);
+        double[] error = eloError(games, elo);
+
+        Integer[] order = new Integer[n];
+        for(int i = 0; i < n; i++)
+            order[i] = i;
+        Arrays.sort(order, (i, j) -> Double.compare(elo[j], elo[i]));
+
+        System.out.printf("%-4s %-32s %7s %7s %7s %7s %9s%n", "Rank", "Configuration", "Elo", "+/-", "Games", "Score", "ms/move");
+        for(int r = 0; r < n; r++) {
+            int i = order[r];
+            Entrant e = entrants.get(i);
+            double played = 0, points = 0;
+            for(int j = 0; j < n; j++) {
+                played += games[i][j];
+                points += wins[i][j];
+            }
+            long moves = e.moves.sum();
+            System.out.printf("%-4d %-32s %7.0f %7.0f %7.0f %6.1f%% %9.2f%n", r + 1, e.name, elo[i], error[i], played,
+                played == 0 ? 0 : 100 * points / played, moves == 0 ? 0 : e.nanos.sum() / 1e6 / moves);
+        }
+
+        System.out.println("\nScore of row against column (%):");
+        StringBuilder header = new StringBuilder("    ");
+        for(int c = 0; c < n; c++)
+            header.append(String.format("%7d", c + 1));
+        System.out.println(header);
+        for(int r = 0; r < n; r++) {
+            StringBuilder row = new StringBuilder(String.format("%-4d", r + 1));
+            for(int c = 0; c < n; c++) {
+                int i = order[r], j = order[c];
+                row.append(i == j || games[i][j] == 0 ? "      -" : String.format("%7.1f", 100 * wins[i][j] / games[i][j]));
+            }
+            System.out.println(row);
+        }
+    }
+
+    /**
+     * method to fit Elo ratings to the results by minorization-maximization of
+     * the Bradley-Terry likelihood, with one virtual draw per pairing
+     * @param games double matrix of games played between entrants
+     * @param wins double matrix of points scored by row against column
+     * @return double array of ratings, averaging 0
+     */
+    static double[] fitElo(double[][] games, double[][] wins) {
+        int n = games.length;
+        double[] gamma = new double[n];
+        Arrays.fill(gamma, 1);
+        for(int iter = 0; iter < 10000; iter++) {
+            double change = 0;
+            for(int i = 0; i < n; i++) {
+                double w = 0, d = 0;
+                for(int j = 0; j < n; j++) {
+                    if(i == j || games[i][j] == 0)
+                        continue;
+                    w += wins[i][j] + 0.5;
+                    d += (games[i][j] + 1) / (gamma[i] + gamma[j]);
+                }
+                if(d == 0)
+                    continue;
+                double next = w / d;
+                change = Math.max(change, Math.abs(Math.log(next / gamma[i])));
+                gamma[i] = next;
+            }
+            if(change < 1e-9)
+                break;
+        }
+        double[] elo = new double[n];
+        double mean = 0;
+        for(int i = 0; i < n; i++) {
+            elo[i] = 400 * Math.log10(gamma[i]);
+            mean += elo[i] / n;
+        }
+        for(int i = 0; i < n; i++)
+            elo[i] -= mean;
+        return elo;
+    }
+
+    /**
+     * method to get the 95% error bar of each rating from the curvature of
+     * the likelihood at the fit
+     * @param games double matrix of games played between entrants
+     * @param elo double array of fitted ratings
+     * @return double array of error bars in Elo
+     */
+    static double[] eloError(double[][] games, double[] elo) {
+        int n = games.length;
+        double[] error = new double[n];
+        for(int i = 0; i < n; i++) {
+            double info = 0;
+            for(int j = 0; j < n; j++) {
+                if(i == j)
+                    continue;
+                double p = 1 / (1 + Math.pow(10, (elo[j] - elo[i]) / 400));
+                info += (games[i][j] + 1) * p * (1 - p);
+            }
+            // information in natural log units of gamma, converted to Elo
+            error[i] = info == 0 ? 0 : 1.96 * 400 / Math.log(10) / Math.sqrt(info);
+        }
+        return error;
+    }
+
+    private static Player[] createPlayers() {
+        Player[] list = new Player[entrants.size()];
+        for(int i = 0; i < list.length; i++)
+            list[i] = new Player(entrants.get(i), i);
+        return list;
+    }
+
+    /**
+     * One agent configuration of the tournament and its results
+     */
+    static class Entrant {
+
+        final String name, kind;
+        final String[] options;
+
+        // results against each other entrant, and time spent choosing moves
+        final LongAdder[] halfPoints, games;
+        final LongAdder moves = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        /**
+         * constructor to read a configuration
+         * @param spec String kind[:option,...]
+         * @param count int number of entrants
+         */
+        Entrant(String spec, int count) {
+            int colon = spec.indexOf(':');
+            kind = colon < 0 ? spec : spec.substring(0, colon);
+            options = colon < 0 ? new String[0] : spec.substring(colon + 1).split(",");
+            if(!kind.equals("minimax") && !kind.equals("mcts") && !kind.equals("greedy"))
+                throw new IllegalArgumentException("Unknown agent " + kind + " in " + spec);
+            String label = spec;
+            for(String option : options) {
+                if(option.startsWith("name="))
+                    label = option.substring(5);
+            }
+            name = label;
+            halfPoints = new LongAdder[count];
+            games = new LongAdder[count];
+            for(int i = 0; i < count; i++) {
+                halfPoints[i] = new LongAdder();
+                games[i] = new LongAdder();
+            }
+        }
+    }
+
+    /**
+     * Agent of one entrant on one worker thread
+     */
+    static class Player {
+
+        final Entrant entrant;
+        Minimax minimax;
+        MCTS mcts;
+        GreedyAI greedy;
+
+        /**
+         * constructor to create the agent of an entrant
+         * @param entrant Entrant to play for
+         * @param index int entrant number, mixed into agent seeds
+         */
+        Player(Entrant entrant, int index) {
+            this.entrant = entrant;
+            if(entrant.kind.equals("minimax")) {
+                minimax = new Minimax();
+                minimax.inPlace = true;
+            } else if(entrant.kind.equals("mcts")) {
+                mcts = new MCTS();
+            } else {
+                greedy = new GreedyAI();
+            }
+            for(String option : entrant.options) {
+                String[] kv = option.split("=", 2);
+                String value = kv.length > 1 ? kv[1] : "";
+                if(kv[0].equals("name"))
+                    continue;
+                if(minimax != null)
+                    setMinimax(kv[0], value);
+                else if(mcts != null)
+                    setMCTS(kv[0], value);
+                else
+                    throw new IllegalArgumentException("Unknown option " + option + " for " + entrant.kind);
+            }
+        }
+
+        /**
+         * method to set up the agent for a new game
+         * @param gameSeed long seed of the game
+         */
+        void newGame(long gameSeed) {
+            if(minimax != null)
+                minimax.newGame();
+            else if(mcts != null)
+                mcts.seed = gameSeed;
+            else
+                greedy.random = new Random(gameSeed);
+        }
+
+        /**
+         * method to choose and make a move for the side to move
+         * @param board current board state
+         */
+        void move(Board board) {
+            long start = System.nanoTime();
+            int col;
+            if(minimax != null) {
+                col = minimax.initAgent(board);
+            } else if(mcts != null) {
+                col = mcts.initAgent(board);
+            } else {
+                col = greedy.initAgent(board);
+                board.makeMove(col, board.moveCount % 2 == 0);
+            }
+            entrant.nanos.add(System.nanoTime() - start);
+            entrant.moves.increment();
+            board.lastHumanMove = col;
+        }
+
+        private void setMinimax(String key, String value) {
+            switch(key) {
+                case "depth":
+                    minimax.depth = Integer.parseInt(value);
+                    break;
+                case "movetime":
+                    minimax.timeBudgetMs = Long.parseLong(value);
+                    break;
+                case "tt":
+                    minimax.ttSizeMB = Integer.parseInt(value);
+                    break;
+                case "solver":
+                    minimax.solverEmptyCells = Integer.parseInt(value);
+                    break;
+                case "nobook":
+                    minimax.book = null;
+                    break;
+                case "noorder":
+                    minimax.orderMoves = false;
+                    break;
+                case "nodeeval":
+                    minimax.incrementalEval = false;
+                    break;
+                case "noreuse":
+                    minimax.reuse = false;
+                    break;
+                case "pvs":
+                    minimax.pvs = true;
+                    break;
+                case "nolmr":
+                    minimax.pvs = true;
+                    minimax.lateMoveReductions = false;
+                    break;
+                case "tree":
+                    minimax.inPlace = false;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown minimax option " + key);
+            }
+        }
+
+        private void setMCTS(String key, String value) {
+            switch(key) {
+                case "movetime":
+                    mcts.timeBudgetMs = Long.parseLong(value);
+                    break;
+                case "playouts":
+                    mcts.playouts = Long.parseLong(value);
+                    break;
+                case "threads":
+                    mcts.threads = Integer.parseInt(value);
+                    break;
+                case "c":
+                    mcts.exploration = Double.parseDouble(value);
+                    break;
+                case "vl":
+                    mcts.virtualLoss = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown mcts option " + key);
+            }
+        }
+    }
+
+    /**
+     * method to read command line options and configurations
+     * @param args String array of command line arguments
+     */
+    static void parseArgs(String[] args) {
+        List<String> specs = new ArrayList<String>();
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "-games":
+                    gamesPerPair = Integer.parseInt(args[++i]);
+                    break;
+                case "-threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "-seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "-opening":
+                    openingPlies = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    if(args[i].startsWith("-"))
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                    specs.add(args[i]);
+            }
+        }
+        if(specs.size() < 2)
+            throw new IllegalArgumentException("Usage: java AIC4_Tournament [options] config config [config...]");
+        gamesPerPair += gamesPerPair % 2;
+        for(String spec : specs)
+            entrants.add(new Entrant(spec, specs.size()));
+    }
+}
@@ -0,0 +1,314 @@
+/**
+ * CS311 Artificial Intelligence
+ * Final Project - Spring 2020
+ *
+ * File: BitBoard.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Bitboard position for AI Connect-4. Each player's pieces are
+ * stored in a single long along with a mask of all occupied squares. Columns
+ * are laid out bottom to top in blocks of HEIGHT + 1 bits, the extra sentinel
+ * bit per column keeps the shift-based win detection from wrapping between
+ * columns:
+ *
+ *   .  .  .  .  .  .  .       (sentinel row)
+ *   5 12 19 26 33 40 47
+ *   4 11 18 25 32 39 46
+ *   3 10 17 24 31 38 45
+ *   2  9 16 23 30 37 44
+ *   1  8 15 22 29 36 43
+ *   0  7 14 21 28 35 42
+ *
+ * This is the layout of the standard board; other sizes use VariantBitBoard,
+ * which overrides the instance methods that depend on it.
+ */
+
+public class BitBoard {
+
+    public static final int WIDTH = 7;
+    public static final int HEIGHT = 6;
+    public static final int H1 = HEIGHT + 1;
+
+    // one bit at the bottom of every column, and every playable square
+    public static final long BOTTOM_MASK = bottomRow();
+    public static final long BOARD_MASK = BOTTOM_MASK * ((1L << HEIGHT) - 1);
+
+    // one column of a position key
+    static final long COLUMN_BITS = (1L << H1) - 1;
+
+    long xBits, oBits, mask;
+    int moveCount;
+
+    /**
+     * method to reset bitboard to an empty position
+     */
+    public void clear() {
+        xBits = 0;
+        oBits = 0;
+        mask = 0;
+        moveCount = 0;
+    }
+
+    /**
+     * method to check if a column can still be played
+     * @param col int column index (0 - 6)
+     * @return boolean if column has an empty square
+     */
+    public boolean canPlay(int col) {
+        return (mask & topMask(col)) == 0;
+    }
+
+    /**
+     * method to drop a piece into a column - caller must check canPlay first
+     * @param col int column index (0 - 6)
+     * @param player boolean for player (true is X, false O)
+     * @return int row the piece landed in, counted from the bottom (0 - 5)
+     */
+    public int play(int col, boolean player) {
+        long move = (mask + bottomMask(col)) & columnMask(col);
+        if(player) {
+            xBits |= move;
+        } else {
+            oBits |= move;
+        }
+        mask |= move;
+        moveCount ++;
+        return Long.numberOfTrailingZeros(move) - col * H1;
+    }
+
+    /**
+     * method to get the square the next piece in a column would land on
+     * @param col int column index (0 - 6)
+     * @return int bit index of square
+     */
+    public int nextSquare(int col) {
+        return col * H1 + Long.bitCount(mask & columnMask(col));
+    }
+
+    /**
+     * method to take back the top piece of a column
+     * @param col int column index (0 - 6)
+     * @return int row the piece was removed from, counted from the bottom (0 - 5)
+     */
+    public int undo(int col) {
+        long move = Long.highestOneBit(mask & columnMask(col));
+        xBits &= ~move;
+        oBits &= ~move;
+        mask &= ~move;
+        moveCount --;
+        return Long.numberOfTrailingZeros(move) - col * H1;
+    }
+
+    /**
+     * method to get all playable squares (one per non-full column)
+     * @return long bitmask of squares the next piece can land on
+     */
+    public long legalMoves() {
+        return (mask + BOTTOM_MASK) & BOARD_MASK;
+    }
+
+    /**
+     * method to check if every square is occupied
+     * @return boolean if board is full
+     */
+    public boolean isFull() {
+        return mask == BOARD_MASK;
+    }
+
+    /**
+     * method to get the pieces of one player
+     * @param player boolean for player (true is X, false O)
+     * @return long bitmask of player's pieces
+     */
+    public long pieces(boolean player) {
+        return player ? xBits : oBits;
+    }
+
+    /**
+     * method to get a unique key for the position - adding the mask pushes a 1 
+     * above the top piece of every column, so X's pieces plus mask identify 
+     * both players' pieces in 49 bits
+     * @return long position key
+     */
+    public long key() {
+        return xBits + mask;
+    }
+
+    /**
+     * method to get the key of the position mirrored left to right - a column
+     * of the key is a block of H1 bits, so mirroring reverses the blocks
+     * @return long key of the mirror image
+     */
+    public long mirrorKey() {
+        long key = key();
+        long mirror = 0;
+        for(int col = 0; col < WIDTH; col++)
+            mirror |= ((key >>> (col * H1)) & COLUMN_BITS) << ((WIDTH - 1 - col) * H1);
+        return mirror;
+    }
+
+    /**
+     * method to get a key shared by the position and its mirror image - the
+     * smaller of key() and mirrorKey(). Anything stored under it with a column
+     * is stored for the orientation of that key, see isMirrored
+     * @return long canonical position key
+     */
+    public long canonicalKey() {
+        return Math.min(key(), mirrorKey());
+    }
+
+    /**
+     * method to check if the canonical key is the mirror image's - columns
+     * stored under it are then mirrored from this position's
+     * @return boolean if mirrorKey is smaller than key
+     */
+    public boolean isMirrored() {
+        return mirrorKey() < key();
+    }
+
+    /**
+     * method to check if the position is its own mirror image, as the empty
+     * board and many openings are - moves left and right of the center then
+     * lead to mirror images of each other
+     * @return boolean if the position is left-right symmetric
+     */
+    public boolean isSymmetric() {
+        return mirrorKey() == key();
+    }
+
+    /**
+     * method to get the column a move is played in on the mirrored board
+     * @param col int column (1 - 7)
+     * @return int mirrored column (1 - 7)
+     */
+    public int mirrorColumn(int col) {
+        return WIDTH + 1 - col;
+    }
+
+    /**
+     * method to copy position from another bitboard
+     * @param other BitBoard to copy
+     */
+    public void copyFrom(BitBoard other) {
+        xBits = other.xBits;
+        oBits = other.oBits;
+        mask = other.mask;
+        moveCount = other.moveCount;
+    }
+
+    /**
+     * method to get the board geometry of this bitboard
+     * @return Geometry of the board
+     */
+    public Geometry geometry() {
+        return Geometry.STANDARD;
+    }
+
+    /**
+     * method to find every empty square that would complete a line for a set
+     * of pieces in this position - winningSquares for the standard board
+     * @param pos long bitmask of one player's pieces
+     * @return long bitmask of winning squares
+     */
+    public long threats(long pos) {
+        return winningSquares(pos, mask);
+    }
+
+    /**
+     * method to check a set of pieces for four-in-a-row with one shift-and per
+     * direction
+     * @param pos long bitmask of one player's pieces
+     * @return boolean if pieces contain a win
+     */
+    public static boolean isWin(long pos) {
+        // horizontal
+        long m = pos & (pos >>> H1);
+        if((m & (m >>> (2 * H1))) != 0)
+            return true;
+        // ascending diagonal
+        m = pos & (pos >>> (H1 + 1));
+        if((m & (m >>> (2 * (H1 + 1)))) != 0)
+            return true;
+        // descending diagonal
+        m = pos & (pos >>> (H1 - 1));
+        if((m & (m >>> (2 * (H1 - 1)))) != 0)
+            return true;
+        // vertical
+        m = pos & (pos >>> 1);
+        return (m & (m >>> 2)) != 0;
+    }
+
+    /**
+     * method to find every empty square that would complete four-in-a-row for
+     * a set of pieces, whether or not it can be played yet
+     * @param pos long bitmask of one player's pieces
+     * @param mask long bitmask of all occupied squares
+     * @return long bitmask of winning squares
+     */
+    public static long winningSquares(long pos, long mask) {
+        // vertical - three stacked pieces win on the square above
+        long r = (pos << 1) & (pos << 2) & (pos << 3);
+
+        // horizontal and both diagonals
+        r |= gaps(pos, H1) | gaps(pos, H1 - 1) | gaps(pos, H1 + 1);
+        return r & (BOARD_MASK ^ mask);
+    }
+
+    /**
+     * method to get bit of the top square of a column
+     * @param col int column index (0 - 6)
+     * @return long single bit mask
+     */
+    public static long topMask(int col) {
+        return 1L << (HEIGHT - 1 + col * H1);
+    }
+
+    /**
+     * method to get bit of the bottom square of a column
+     * @param col int column index (0 - 6)
+     * @return long single bit mask
+     */
+    public static long bottomMask(int col) {
+        return 1L << (col * H1);
+    }
+
+    /**
+     * method to get all playable squares of a column
+     * @param col int column index (0 - 6)
+     * @return long bitmask of column
+     */
+    public static long columnMask(int col) {
+        return ((1L << HEIGHT) - 1) << (col * H1);
+    }
+
+    /**
+     * method to get bit of a square from row/col coordinates
+     * @param row int row counted from the bottom (0 - 5)
+     * @param col int column index (0 - 6)
+     * @return long single bit mask
+     */
+    public static long cellMask(int row, int col) {
+        return 1L << (row + col * H1);
+    }
+
+    // squares completing three pieces of a line in one direction - at either
+    // end or in one of the two inner gaps
+    private static long gaps(long pos, int shift) {
+        long p = (pos << shift) & (pos << (2 * shift));
+        long r = p & (pos << (3 * shift));
+        r |= p & (pos >>> shift);
+        p = (pos >>> shift) & (pos >>> (2 * shift));
+        r |= p & (pos << shift);
+        r |= p & (pos >>> (3 * shift));
+        return r;
+    }
+
+    private static long bottomRow() {
+        long m = 0;
+        for(int col = 0; col < WIDTH; col++) {
+            m |= 1L << (col * H1);
+        }
+        return m;
+    }
+}
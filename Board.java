@@ -6,15 +6,41 @@
  * Authors: Calder Birdsey and Brandon Choe
  * Updated: 5/15/20
  * 
- * Description: Board class for AI Connect-4 to simulate command line gameplay
+ * Description: Board class for AI Connect-4 to simulate command line gameplay. 
+ * The position is kept in a BitBoard for win/move checks, boardArr mirrors it 
+ * for printing and the Node heuristics. 
+ *
+ * Moves, take backs and copies follow the board's Geometry. This is the 
+ * standard 6x7 connect-4 board; boards of other sizes are VariantBoards, 
+ * created with Geometry.newBoard. 
  */
 
 public class Board implements Cloneable{
     
     boolean boardFull, playing;
     String winningPlayer; 
-    String[][] boardArr =  new String[6][7]; 
+    final Geometry geo; 
+    String[][] boardArr; 
+    BitBoard bits; 
     int moveCount, lastHumanMove; 
+
+    /**
+     * constructor to create a standard 6x7 connect-4 board 
+     */
+    public Board() {
+        this(Geometry.STANDARD); 
+    }
+
+    /**
+     * constructor to create the arrays of a board of any geometry - see 
+     * VariantBoard 
+     * @param geo Geometry of the board 
+     */
+    Board(Geometry geo) {
+        this.geo = geo; 
+        boardArr = new String[geo.rows][geo.cols]; 
+        bits = geo.newBitBoard(); 
+    }
         
     /**
      * method to initialize new board instance with blank spaces
@@ -25,7 +51,10 @@ public class Board implements Cloneable{
                 row[i] = "_";  
             }
         }
+        bits.clear(); 
         playing = true; 
+        boardFull = false; 
+        winningPlayer = null; 
         moveCount = 0; 
     }
 
@@ -35,65 +64,47 @@ public class Board implements Cloneable{
      * @param player boolean for player (true is human, false AI)
      */
 	public void makeMove(int col, boolean player){
-        for(int i = 5; i >= 0; i--) {
-            if(col > 7) {
-                col = 7; 
-            }
-            
-            if(boardArr[i][col - 1].equals("_")) {
-                if(player) {
-                    boardArr[i][col - 1] = "X";
-                    checkWin("X");
-                } else {
-                    boardArr[i][col - 1] = "O";
-                    checkWin("O");
-                } 
-                break; 
-            }
+        if(col > geo.cols) {
+            col = geo.cols; 
+        }
+
+        if(bits.canPlay(col - 1)) {
+            int row = bits.play(col - 1, player); 
+            if(player) {
+                boardArr[geo.rows - 1 - row][col - 1] = "X";
+                checkWin("X");
+            } else {
+                boardArr[geo.rows - 1 - row][col - 1] = "O";
+                checkWin("O");
+            } 
         }
         moveCount ++; 
         checkBoardFull(); 
     }
 
     /**
-     * method to check for a win (four-in-a-row) in board instance 
+     * method to take back the top piece of a column - used by the in-place 
+     * search to unmake moves played with makeMove. Only valid for moves made 
+     * while the game was still in progress
+     * @param col int column to take piece from
+     */
+    public void undoMove(int col) {
+        int row = bits.undo(col - 1); 
+        boardArr[geo.rows - 1 - row][col - 1] = "_"; 
+        moveCount --; 
+        playing = true; 
+        boardFull = false; 
+        winningPlayer = null; 
+    }
+
+    /**
+     * method to check for a win (four-in-a-row) in board instance - uses the 
+     * bitboard shift-and check
      * @param player String piece to check ("X" or "O")
      * @return boolean if board contains win
      */
     public boolean checkWin(String player){
-        boolean winner = false;
-
-        // horizontal check 
-        for (int j = 0; j<4 ; j++ ){
-            for (int i = 0; i<6; i++){
-                if (boardArr[i][j].equals(player) && boardArr[i][j+1].equals(player) && boardArr[i][j+2].equals(player) && boardArr[i][j+3].equals(player)){
-                    winner = true;
-                }           
-            }
-        }
-        // vertical check
-        for (int i = 0; i<3; i++ ){
-            for (int j = 0; j<6; j++){
-                if (boardArr[i][j].equals(player) && boardArr[i+1][j].equals(player) && boardArr[i+2][j].equals(player) && boardArr[i+3][j].equals(player)){
-                    winner = true;
-                }           
-            }
-        }
-
-        // ascending diagonal check 
-        for (int i=3; i<6; i++){
-            for (int j=0; j<4; j++){
-                if (boardArr[i][j].equals(player) && boardArr[i-1][j+1].equals(player) && boardArr[i-2][j+2].equals(player) && boardArr[i-3][j+3].equals(player))
-                    winner = true;
-            }
-        }
-        // descending diagonal check
-        for (int i=5; i>2; i--){
-            for (int j=3; j<7; j++){
-                if (boardArr[i][j].equals(player) && boardArr[i-1][j-1].equals(player) && boardArr[i-2][j-2].equals(player) && boardArr[i-3][j-3].equals(player))
-                    winner = true;
-            }
-        }
+        boolean winner = BitBoard.isWin(bits.pieces(player.equals("X"))); 
 
         if(winner) {
             playing = false; 
@@ -108,21 +119,17 @@ public class Board implements Cloneable{
      * @return boolean if move is valid or not
      */
     public boolean validMove(int col){
-        if(col < 1 || col > 7) 
-            return false; 
-        else if(!boardArr[0][col - 1].equals("_")) 
+        if(col < 1 || col > geo.cols) 
             return false; 
-        return true; 
+        return bits.canPlay(col - 1); 
     }
 
     /**
      * method to check if board is full (i.e. tie game)
      */
     public void checkBoardFull() {
-        for(int i = 0;  i < 7; i++) {
-            if(boardArr[0][i].equals("_"))
-                return;
-        }
+        if(!bits.isFull())
+            return; 
         boardFull = true; 
         playing = false; 
     }
@@ -148,13 +155,14 @@ public class Board implements Cloneable{
      * @return Board copy of current board 
      */
     public Board copyBoard() {
-        Board temp = new Board();
+        Board temp = geo.newBoard();
         temp.moveCount = moveCount; 
         temp.boardFull = boardFull; 
         temp.playing = playing; 
         temp.lastHumanMove = lastHumanMove; 
-        for(int i = 0; i < 6; i++) {
-            for(int j = 0; j < 7; j++)
+        temp.bits.copyFrom(bits); 
+        for(int i = 0; i < geo.rows; i++) {
+            for(int j = 0; j < geo.cols; j++)
                 temp.boardArr[i][j] = boardArr[i][j]; 
         }
         return temp; 
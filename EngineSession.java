@@ -0,0 +1,326 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: EngineSession.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: One client of the engine server (see AIC4_Server.java), on
+ * stdin/stdout or a socket. The client sends one command per line:
+ *   position [moves]   set the position to the columns played from the empty
+ *                      board, X first (e.g. position 4453, or 4 4 5 3) - no
+ *                      moves is the empty board
+ *   go [depth D] [movetime M] [multipv K]
+ *                      search the current position for the side to move, to
+ *                      depth D or for M ms (defaults from the server), and
+ *                      score the best K moves
+ *   stop               end the running search now - it answers with the best
+ *                      move of the deepest depth completed
+ *   isready            answered with readyok at once
+ *   quit               stop the running search, drop queued ones and close
+ * and every go is answered, in order, with
+ *   info depth D score S nodes N time T source SRC
+ *   info multipv I move C score S     (K lines, best first, when K > 1)
+ *   bestmove C                        (none if stopped before any move)
+ * where scores are Minimax.lastScore for the side to move and source is how
+ * the move was found (see SearchStats). A bad command is answered at once
+ * with a line starting with error, which can come ahead of the replies to
+ * earlier go commands still searching.
+ *
+ * Commands are read while searches run, so a client can send several go
+ * commands without waiting - each takes the position set before it and they
+ * run one after another on the server's worker pool, at most the server's
+ * queue limit at a time. The end of input finishes the queued searches
+ * before the session closes.
+ */
+
+public class EngineSession implements Runnable {
+
+    final BufferedReader in;
+    final Writer out;
+    final ExecutorService pool;
+
+    // position set by the last position command
+    String moves = "";
+
+    // searches of this client run in order, each chained to the last
+    CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+    final AtomicInteger queued = new AtomicInteger();
+    volatile Request current;
+    volatile boolean closing;
+
+    /**
+     * constructor to create session for one client
+     * @param in BufferedReader of commands
+     * @param out Writer for replies
+     * @param pool ExecutorService to search on
+     */
+    public EngineSession(BufferedReader in, Writer out, ExecutorService pool) {
+        this.in = in;
+        this.out = out;
+        this.pool = pool;
+    }
+
+    /**
+     * method to read and answer commands until quit or the end of input
+     */
+    @Override
+    public void run() {
+        try {
+            String line;
+            while(!closing && (line = in.readLine()) != null) {
+                String[] words = line.trim().split("\\s+");
+                switch(words[0]) {
+                    case "":
+                        break;
+                    case "position":
+                        position(words);
+                        break;
+                    case "go":
+                        go(words);
+                        break;
+                    case "stop":
+                        stop();
+                        break;
+                    case "isready":
+                        send("readyok\n");
+                        break;
+                    case "quit":
+                        closing = true;
+                        stop();
+                        break;
+                    default:
+                        send("error unknown command " + words[0] + "\n");
+                }
+            }
+        } catch (IOException e) {
+            // client went away - drop what it queued
+            closing = true;
+            stop();
+        }
+        tail.join();
+    }
+
+    /**
+     * method to set the position from a position command
+     * @param words String array of command words
+     */
+    void position(String[] words) {
+        StringBuilder s = new StringBuilder();
+        for(int i = 1; i < words.length; i++)
+            s.append(words[i]);
+        String played = s.toString();
+        if(play(played, new Board()) == null) {
+            send("error invalid position " + played + "\n");
+            return;
+        }
+        moves = played;
+    }
+
+    /**
+     * method to queue a search from a go command
+     * @param words String array of command words
+     */
+    void go(String[] words) {
+        Request request = new Request(moves);
+        boolean timed = false;
+        try {
+            for(int i = 1; i < words.length; i++) {
+                switch(words[i]) {
+                    case "depth":
+                        // a depth asked for overrides the server's movetime
+                        request.depth = Integer.parseInt(words[++i]);
+                        if(!timed)
+                            request.moveTime = 0;
+                        break;
+                    case "movetime":
+                        request.moveTime = Long.parseLong(words[++i]);
+                        timed = true;
+                        break;
+                    case "multipv":
+                        request.multiPV = Integer.parseInt(words[++i]);
+                        break;
+                    default:
+                        send("error unknown go option " + words[i] + "\n");
+                        return;
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            send("error go options need a number each\n");
+            return;
+        }
+        if(request.depth < 1 || request.moveTime < 0 || request.multiPV < 1) {
+            send("error go options must be positive\n");
+            return;
+        }
+        if(queued.get() >= AIC4_Server.queue) {
+            send("error queue full\n");
+            return;
+        }
+        queued.incrementAndGet();
+        tail = tail.thenRunAsync(() -> execute(request), pool);
+    }
+
+    /**
+     * method to stop the running search, if any
+     */
+    void stop() {
+        Request request = current;
+        if(request != null)
+            request.stop();
+    }
+
+    /**
+     * method to run one search on a worker thread and send its result - runs
+     * on the pool, one request of a session at a time
+     * @param request Request to search
+     */
+    void execute(Request request) {
+        try {
+            if(closing)
+                return;
+            current = request;
+            AIC4_Server.Engine engine = AIC4_Server.engines.get();
+            Board board = play(request.moves, engine.board);
+            if(!board.playing) {
+                send("error position is over\n");
+                return;
+            }
+            Minimax agent = board.moveCount % 2 == 0 ? engine.xAgent : engine.oAgent;
+            agent.depth = request.depth;
+            agent.timeBudgetMs = request.moveTime;
+            agent.multiPV = request.multiPV;
+            agent.search.stopRequested = false;
+            request.start(agent);
+            int col;
+            try {
+                col = agent.initAgent(board);
+            } finally {
+                request.start(null);
+            }
+            send(result(agent, col, request.multiPV));
+        } catch (RuntimeException e) {
+            // keep the chain going for the requests behind this one
+            send("error " + e + "\n");
+        } finally {
+            current = null;
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * method to format the reply to a search
+     * @param agent Minimax agent that searched
+     * @param col int column chosen, -1 if none
+     * @param multiPV int lines wanted
+     * @return String reply lines
+     */
+    static String result(Minimax agent, int col, int multiPV) {
+        SearchStats stats = agent.lastStats;
+        StringBuilder s = new StringBuilder();
+        s.append("info depth ").append(stats.depth).append(" score ").append(agent.lastScore)
+            .append(" nodes ").append(stats.nodes).append(" time ").append(stats.elapsedNanos / 1000000)
+            .append(" source ").append(stats.source).append('\n');
+        if(multiPV > 1 && col > 0 && SearchStats.SEARCH.equals(stats.source)) {
+            // the move played first, then best first with ties by column
+            boolean[] listed = new boolean[BitBoard.WIDTH + 1];
+            for(int line = 1; line <= multiPV; line++) {
+                int best = line == 1 ? col : 0;
+                for(int c = 1; c <= BitBoard.WIDTH; c++) {
+                    if(!listed[c] && agent.rootScore(c) > Search.NEGINFINITY
+                        && (best == 0 || agent.rootScore(c) > agent.rootScore(best)))
+                        best = c;
+                }
+                if(best == 0)
+                    break;
+                listed[best] = true;
+                s.append("info multipv ").append(line).append(" move ").append(best)
+                    .append(" score ").append(agent.rootScore(best)).append('\n');
+            }
+        }
+        s.append("bestmove ").append(col > 0 ? Integer.toString(col) : "none").append('\n');
+        return s.toString();
+    }
+
+    /**
+     * method to play out a position on a board
+     * @param played String columns played from the empty board
+     * @param board Board to reset and play on
+     * @return Board the board, or null if a move cannot be played
+     */
+    static Board play(String played, Board board) {
+        board.setBoard();
+        for(int i = 0; i < played.length(); i++) {
+            int col = played.charAt(i) - '0';
+            if(!board.playing || col < 1 || col > BitBoard.WIDTH || !board.validMove(col))
+                return null;
+            board.lastHumanMove = col;
+            board.makeMove(col, board.moveCount % 2 == 0);
+        }
+        return board;
+    }
+
+    /**
+     * method to write reply lines to the client - replies of searches and of
+     * the reader thread never interleave
+     * @param lines String lines to send
+     */
+    void send(String lines) {
+        synchronized(out) {
+            try {
+                out.write(lines);
+                out.flush();
+            } catch (IOException e) {
+                closing = true;
+            }
+        }
+    }
+
+    /**
+     * One queued go command
+     */
+    static class Request {
+
+        final String moves;
+        int depth = AIC4_Server.depth;
+        long moveTime = AIC4_Server.moveTime;
+        int multiPV = 1;
+
+        // agent searching the request while it runs, and whether stop was
+        // asked for - a stop before the search starts still stops it
+        private Minimax agent;
+        private boolean stopped;
+
+        Request(String moves) {
+            this.moves = moves;
+        }
+
+        /**
+         * method to set or clear the agent searching the request - the agent
+         * is only stopped while it is set, so a late stop never reaches the
+         * next request the agent searches
+         * @param searching Minimax agent about to search, null once done
+         */
+        synchronized void start(Minimax searching) {
+            agent = searching;
+            if(agent != null && stopped)
+                agent.stop();
+        }
+
+        /**
+         * method to stop the request's search
+         */
+        synchronized void stop() {
+            stopped = true;
+            if(agent != null)
+                agent.stop();
+        }
+    }
+}
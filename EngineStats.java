@@ -0,0 +1,157 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: EngineStats.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Running totals of SearchStats over every instrumented
+ * Minimax agent in the JVM, exposed as an MBean. Totals are LongAdders so
+ * agents on different threads can add to them without contention. The MBean
+ * is registered the first time an instrumented agent makes a move.
+ */
+
+public class EngineStats implements EngineStatsMBean {
+
+    public static final String NAME = "connect4:type=EngineStats";
+
+    private static EngineStats instance;
+
+    final LongAdder moves = new LongAdder();
+    final LongAdder searches = new LongAdder();
+    final LongAdder openings = new LongAdder();
+    final LongAdder blocks = new LongAdder();
+    final LongAdder solves = new LongAdder();
+    final LongAdder cached = new LongAdder();
+    final LongAdder solveNanos = new LongAdder();
+    final LongAdder nodes = new LongAdder();
+    final LongAdder leaves = new LongAdder();
+    final LongAdder cutoffs = new LongAdder();
+    final LongAdder firstMoveCutoffs = new LongAdder();
+    final LongAdder searchNanos = new LongAdder();
+    final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * method to get the shared instance, registering it with the platform
+     * MBean server on first use
+     * @return EngineStats shared instance
+     */
+    public static synchronized EngineStats get() {
+        if(instance == null) {
+            instance = new EngineStats();
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(instance, new ObjectName(NAME));
+            } catch (JMException e) {
+                System.err.println("Could not register " + NAME + ": " + e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * method to add one move to the totals
+     * @param stats SearchStats of the move
+     */
+    public void add(SearchStats stats) {
+        moves.increment();
+        totalNanos.add(stats.elapsedNanos);
+        if(SearchStats.OPENING.equals(stats.source)) {
+            openings.increment();
+        } else if(SearchStats.BLOCK.equals(stats.source)) {
+            blocks.increment();
+        } else if(SearchStats.CACHE.equals(stats.source)) {
+            cached.increment();
+        } else if(SearchStats.SOLVE.equals(stats.source)) {
+            solves.increment();
+            solveNanos.add(stats.elapsedNanos);
+        } else {
+            searches.increment();
+            searchNanos.add(stats.elapsedNanos);
+            nodes.add(stats.nodes);
+            leaves.add(stats.leaves);
+            cutoffs.add(stats.cutoffs);
+            firstMoveCutoffs.add(stats.firstMoveCutoffs);
+        }
+    }
+
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    public long getOpeningShortcuts() {
+        return openings.sum();
+    }
+
+    public long getBlockingShortcuts() {
+        return blocks.sum();
+    }
+
+    public long getCacheShortcuts() {
+        return cached.sum();
+    }
+
+    public long getSolves() {
+        return solves.sum();
+    }
+
+    public double getAverageSolveMillis() {
+        long count = solves.sum();
+        return count == 0 ? 0 : solveNanos.sum() / 1e6 / count;
+    }
+
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    public long getLeaves() {
+        return leaves.sum();
+    }
+
+    public long getCutoffs() {
+        return cutoffs.sum();
+    }
+
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs.sum();
+    }
+
+    public double getFirstMoveCutoffRate() {
+        long total = cutoffs.sum();
+        return total == 0 ? 0 : (double) firstMoveCutoffs.sum() / total;
+    }
+
+    public double getNodesPerSecond() {
+        long nanos = searchNanos.sum();
+        return nanos == 0 ? 0 : nodes.sum() * 1e9 / nanos;
+    }
+
+    public double getAverageMillisPerMove() {
+        long count = moves.sum();
+        return count == 0 ? 0 : totalNanos.sum() / 1e6 / count;
+    }
+
+    public void reset() {
+        moves.reset();
+        searches.reset();
+        openings.reset();
+        blocks.reset();
+        solves.reset();
+        cached.reset();
+        solveNanos.reset();
+        nodes.reset();
+        leaves.reset();
+        cutoffs.reset();
+        firstMoveCutoffs.reset();
+        searchNanos.reset();
+        totalNanos.reset();
+    }
+}
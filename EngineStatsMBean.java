@@ -0,0 +1,43 @@
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: EngineStatsMBean.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Management interface of EngineStats, registered as
+ * connect4:type=EngineStats and readable from jconsole or any JMX client.
+ */
+
+public interface EngineStatsMBean {
+
+    long getMoves();
+
+    long getSearches();
+
+    long getOpeningShortcuts();
+
+    long getBlockingShortcuts();
+
+    long getCacheShortcuts();
+
+    long getSolves();
+
+    double getAverageSolveMillis();
+
+    long getNodes();
+
+    long getLeaves();
+
+    long getCutoffs();
+
+    long getFirstMoveCutoffs();
+
+    double getFirstMoveCutoffRate();
+
+    double getNodesPerSecond();
+
+    double getAverageMillisPerMove();
+
+    void reset();
+}
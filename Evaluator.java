@@ -0,0 +1,200 @@
+import java.util.Arrays;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: Evaluator.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Incremental version of the Node.evalUtility heuristics for the
+ * in-place search. Piece counts of every line (the 69 four-in-a-row lines
+ * of 6x7) and the running totals of the line and neighborhood scores are
+ * updated on every move and take back, so a leaf is scored in constant time
+ * instead of rescanning the board. Boards of other geometries are scored with
+ * their own LineTables like Node does, the arrays sized again when the
+ * geometry changes.
+ *
+ * Scores equal Node.evalUtility times 10 (every heuristic weight is a
+ * multiple of 0.1, so scaling keeps them exact as integers), with the x10
+ * weights of LineTables that Node scores with:
+ *   - scoreHorizontals, scoreVerticals and scoreDiagonals score every line
+ *     through every agent piece, so a line with a agent pieces, o opponent
+ *     pieces and e empty squares is counted a times for
+ *     3 * (1 + ... + a) + 0.1 * e - 3 * o
+ *   - scoreNeighborhoods is a sum over pairs of nearby squares, so a move
+ *     only changes the terms of squares within two steps of it
+ */
+
+public class Evaluator {
+
+    // square owners, the owner indices of the LineTables weights
+    static final byte EMPTY = LineTables.EMPTY;
+    static final byte AGENT = LineTables.OWN;
+    static final byte OPPONENT = LineTables.OPPONENT;
+
+    // x10 score of a line by agent and opponent piece count, already counted
+    // once per agent piece in the line
+    static final int[][] LINE_SCORE = buildLineScores(LineTables.STANDARD);
+
+    static final int[] RING1 = LineTables.RING1_WEIGHT;
+    static final int[] RING2 = LineTables.RING2_WEIGHT;
+
+    boolean agentPlayer;
+
+    // tables of the board last reset, and the arrays sized for them
+    LineTables tables = LineTables.STANDARD;
+    int[][] lineScore = LINE_SCORE;
+    byte[] owner = new byte[LineTables.SQUARES];
+    int[] agentCount = new int[LineTables.LINES.length];
+    int[] opCount = new int[LineTables.LINES.length];
+    int lineTotal, neighborTotal;
+
+    // totals before each move so take backs restore them directly
+    final int[] savedLine = new int[Search.MAX_PLY + 1];
+    final int[] savedNeighbor = new int[Search.MAX_PLY + 1];
+    final int[] squares = new int[Search.MAX_PLY + 1];
+    int moves;
+
+    /**
+     * method to load a position - scores every piece from an empty board
+     * @param bits bitboard of position
+     * @param agentPlayer boolean piece the score is for (true is X, false O)
+     */
+    public void reset(BitBoard bits, boolean agentPlayer) {
+        this.agentPlayer = agentPlayer;
+        LineTables t = bits.geometry().tables;
+        if(t != tables) {
+            tables = t;
+            lineScore = t == LineTables.STANDARD ? LINE_SCORE : buildLineScores(t);
+            owner = new byte[t.squares];
+            agentCount = new int[t.lines.length];
+            opCount = new int[t.lines.length];
+        }
+        Arrays.fill(owner, EMPTY);
+        Arrays.fill(agentCount, 0);
+        Arrays.fill(opCount, 0);
+        lineTotal = 0;
+        neighborTotal = 0;
+        long agent = bits.pieces(agentPlayer);
+        long pieces = bits.mask;
+        while(pieces != 0) {
+            int sq = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            place(sq, (agent & (1L << sq)) != 0);
+        }
+        moves = 0;
+    }
+
+    /**
+     * method to update scores for a piece played on a square
+     * @param square int bit index of square
+     * @param agent boolean if the piece belongs to the agent
+     */
+    public void play(int square, boolean agent) {
+        savedLine[moves] = lineTotal;
+        savedNeighbor[moves] = neighborTotal;
+        squares[moves++] = square;
+        place(square, agent);
+    }
+
+    /**
+     * method to take back the last piece passed to play
+     */
+    public void undo() {
+        int sq = squares[--moves];
+        int[] lines = tables.linesThrough[sq];
+        if(owner[sq] == AGENT) {
+            for(int l : lines)
+                agentCount[l] --;
+        } else {
+            for(int l : lines)
+                opCount[l] --;
+        }
+        owner[sq] = EMPTY;
+        lineTotal = savedLine[moves];
+        neighborTotal = savedNeighbor[moves];
+    }
+
+    /**
+     * method to get heuristic score of the position
+     * @return int Node.evalUtility heuristic score x10
+     */
+    public int score() {
+        return lineTotal + neighborTotal;
+    }
+
+    private void place(int sq, boolean agent) {
+        LineTables t = tables;
+        int[][] scores = lineScore;
+        int[] lines = t.linesThrough[sq];
+        for(int l : lines) {
+            lineTotal -= scores[agentCount[l]][opCount[l]];
+            if(agent)
+                agentCount[l] ++;
+            else
+                opCount[l] ++;
+            lineTotal += scores[agentCount[l]][opCount[l]];
+        }
+        owner[sq] = agent ? AGENT : OPPONENT;
+
+        int[] ring1 = t.ring1[sq];
+        int[] ring2 = t.ring2[sq];
+        int[] mids = t.ring2Mid[sq];
+        int delta = 0;
+        if(agent) {
+            // neighborhood of the new piece itself
+            delta += LineTables.CENTER_WEIGHT;
+            for(int q : ring1)
+                delta += RING1[owner[q]];
+            for(int k = 0; k < ring2.length; k++)
+                delta += ring2Score(owner[ring2[k]], mids[k]);
+
+            // agent pieces that now see an agent piece instead of a space
+            for(int p : ring1) {
+                if(owner[p] == AGENT)
+                    delta += RING1[AGENT] - RING1[EMPTY];
+            }
+            for(int k = 0; k < ring2.length; k++) {
+                if(owner[ring2[k]] == AGENT)
+                    delta += ring2Score(AGENT, mids[k]) - RING2[EMPTY];
+            }
+
+            // agent pieces two apart that are now connected through this one
+            int[] pairs = t.midPairs[sq];
+            for(int k = 0; k < pairs.length; k += 2) {
+                if(owner[pairs[k]] == AGENT && owner[pairs[k + 1]] == AGENT)
+                    delta += 2 * (LineTables.RING2_CONNECTED - RING2[AGENT]);
+            }
+        } else {
+            // agent pieces that now see an opponent piece instead of a space
+            for(int p : ring1) {
+                if(owner[p] == AGENT)
+                    delta += RING1[OPPONENT] - RING1[EMPTY];
+            }
+            for(int q : ring2) {
+                if(owner[q] == AGENT)
+                    delta += RING2[OPPONENT] - RING2[EMPTY];
+            }
+        }
+        neighborTotal += delta;
+    }
+
+    // x10 outer ring weight - agent pieces score 3^2 when connected to the
+    // center through the square between them, 3^1 otherwise
+    private int ring2Score(byte who, int mid) {
+        if(who == AGENT && mid >= 0 && owner[mid] == AGENT)
+            return LineTables.RING2_CONNECTED;
+        return RING2[who];
+    }
+
+    private static int[][] buildLineScores(LineTables t) {
+        int[][] weights = t.lineWeights;
+        int[][] scores = new int[weights.length][weights.length];
+        for(int a = 0; a < weights.length; a++) {
+            for(int o = 0; a + o < weights.length; o++)
+                scores[a][o] = a * weights[a][o];
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,181 @@
+import java.nio.ByteBuffer;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: GameRecord.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: One finished game as written to a game record file (see
+ * GameRecordWriter.java and GameRecordReader.java). A record is encoded
+ * little-endian as
+ *   short length    bytes in the record, this field included
+ *   byte moves      number of moves
+ *   byte result     TIE, X_WON or O_WON
+ *   byte x, o       agent of each side (GREEDY, MINIMAX, MCTS or HUMAN)
+ *   byte rows, cols, connect   board geometry
+ *   long seed       seed the game was played with
+ *   moves           one nibble per move, the column (1 - 15), first move in
+ *                   the low nibble
+ *   latencies       time taken by each move in microseconds, as unsigned
+ *                   varints (7 bits a byte, low bits first)
+ * so a typical game takes 60 - 80 bytes. Columns fit a nibble, so boards
+ * wider than 15 columns cannot be recorded.
+ *
+ * A record object is reused - set its fields and moves, encode it, and clear
+ * it for the next game.
+ */
+
+public class GameRecord {
+
+    public static final int TIE = 0;
+    public static final int X_WON = 1;
+    public static final int O_WON = 2;
+
+    public static final int GREEDY = 0;
+    public static final int MINIMAX = 1;
+    public static final int MCTS = 2;
+    public static final int HUMAN = 3;
+
+    static final int HEADER_BYTES = 17;
+    static final int MAX_MOVES = 64;
+
+    // largest encoded record - a varint of an int takes up to 5 bytes
+    static final int MAX_BYTES = HEADER_BYTES + MAX_MOVES / 2 + MAX_MOVES * 5;
+
+    public int result, xAgent, oAgent;
+    public int rows = BitBoard.HEIGHT, cols = BitBoard.WIDTH, connect = 4;
+    public long seed;
+    public int moveCount;
+    public final byte[] moves = new byte[MAX_MOVES];
+    public final int[] latencyMicros = new int[MAX_MOVES];
+
+    /**
+     * method to reset the moves for a new game
+     */
+    public void clear() {
+        moveCount = 0;
+        result = TIE;
+    }
+
+    /**
+     * method to set the board geometry of the game
+     * @param geo Geometry of the board
+     */
+    public void setGeometry(Geometry geo) {
+        if(geo.cols > 15)
+            throw new IllegalArgumentException("Game records hold up to 15 columns, not " + geo.cols);
+        rows = geo.rows;
+        cols = geo.cols;
+        connect = geo.connect;
+    }
+
+    /**
+     * method to add a move to the game
+     * @param col int column played (1 - 15)
+     * @param nanos long time taken to choose the move
+     */
+    public void addMove(int col, long nanos) {
+        moves[moveCount] = (byte) col;
+        latencyMicros[moveCount] = (int) Math.min(Integer.MAX_VALUE, nanos / 1000);
+        moveCount ++;
+    }
+
+    /**
+     * method to set the result from a finished board
+     * @param board Board the game was played on
+     */
+    public void setResult(Board board) {
+        if(board.winningPlayer == null)
+            result = TIE;
+        else
+            result = board.winningPlayer.equals("X") ? X_WON : O_WON;
+    }
+
+    /**
+     * method to get the moves as a string of columns, the form AIC4_Batch
+     * reads (e.g. 4453) - boards of up to 9 columns only
+     * @return String moves of the game
+     */
+    public String moveString() {
+        StringBuilder s = new StringBuilder(moveCount);
+        for(int i = 0; i < moveCount; i++)
+            s.append(moves[i]);
+        return s.toString();
+    }
+
+    /**
+     * method to write the record at the buffer's position
+     * @param buf ByteBuffer in little-endian order with MAX_BYTES remaining
+     */
+    public void encode(ByteBuffer buf) {
+        int start = buf.position();
+        buf.position(start + 2);
+        buf.put((byte) moveCount);
+        buf.put((byte) result);
+        buf.put((byte) xAgent);
+        buf.put((byte) oAgent);
+        buf.put((byte) rows);
+        buf.put((byte) cols);
+        buf.put((byte) connect);
+        buf.putLong(seed);
+        for(int i = 0; i < moveCount; i += 2) {
+            int low = moves[i];
+            int high = i + 1 < moveCount ? moves[i + 1] : 0;
+            buf.put((byte) (high << 4 | low));
+        }
+        for(int i = 0; i < moveCount; i++) {
+            int v = latencyMicros[i];
+            while((v & ~0x7f) != 0) {
+                buf.put((byte) (v & 0x7f | 0x80));
+                v >>>= 7;
+            }
+            buf.put((byte) v);
+        }
+        buf.putShort(start, (short) (buf.position() - start));
+    }
+
+    /**
+     * method to read a record from a buffer without moving its position
+     * @param buf ByteBuffer in little-endian order
+     * @param at int offset of the record
+     * @return int length of the record in bytes
+     */
+    public int decode(ByteBuffer buf, int at) {
+        int length = buf.getShort(at) & 0xffff;
+        moveCount = buf.get(at + 2) & 0xff;
+        result = buf.get(at + 3);
+        xAgent = buf.get(at + 4);
+        oAgent = buf.get(at + 5);
+        rows = buf.get(at + 6);
+        cols = buf.get(at + 7);
+        connect = buf.get(at + 8);
+        seed = buf.getLong(at + 9);
+        int p = at + HEADER_BYTES;
+        for(int i = 0; i < moveCount; i++)
+            moves[i] = (byte) (i % 2 == 0 ? buf.get(p + i / 2) & 15 : (buf.get(p + i / 2) >>> 4) & 15);
+        p += (moveCount + 1) / 2;
+        for(int i = 0; i < moveCount; i++) {
+            int v = 0;
+            for(int shift = 0; ; shift += 7) {
+                int b = buf.get(p++);
+                v |= (b & 0x7f) << shift;
+                if(b >= 0)
+                    break;
+            }
+            latencyMicros[i] = v;
+        }
+        return length;
+    }
+
+    /**
+     * method to get the geometry the game was played on
+     * @return Geometry of the record's board
+     */
+    public Geometry geometry() {
+        if(rows == BitBoard.HEIGHT && cols == BitBoard.WIDTH && connect == 4)
+            return Geometry.STANDARD;
+        return new Geometry(rows, cols, connect);
+    }
+}
@@ -0,0 +1,188 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: GameRecordReader.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Streams the records of a game record file (see
+ * GameRecordWriter.java) straight from a memory-mapped window of the file.
+ * next() moves to the following record and the accessors read its fields in
+ * place, so iterating copies nothing and allocates nothing per record; read()
+ * copies a record into a GameRecord when one is needed.
+ *
+ * The file is mapped WINDOW_BYTES at a time, remapped at a block boundary
+ * when a block runs past the window, so files of any size stream in constant
+ * memory. Every block's CRC is checked before its records are read. Reading
+ * stops at the first block that is cut short or fails its check - the tail of
+ * a file whose writer did not close it.
+ */
+
+public class GameRecordReader {
+
+    static final long WINDOW_BYTES = 256L * 1024 * 1024;
+
+    final FileChannel channel;
+    final long size;
+    final CRC32 crc = new CRC32();
+
+    MappedByteBuffer window;
+    long windowStart;
+
+    // file offset of the current block, offset in the window of the current
+    // record and of the end of its block, records left in the block
+    long block;
+    int record = -1, recordLength, blockEnd, left;
+
+    // blocks read and whether reading stopped at a damaged block
+    public long blocks;
+    public boolean damaged;
+
+    /**
+     * constructor to open a record file for reading
+     * @param path String path of record file
+     * @throws IOException if the file cannot be opened
+     */
+    public GameRecordReader(String path) throws IOException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        size = channel.size();
+    }
+
+    /**
+     * method to move to the next record
+     * @return boolean false once there are no records left
+     * @throws IOException if the file cannot be mapped
+     */
+    public boolean next() throws IOException {
+        if(!channel.isOpen())
+            return false;
+        if(left > 0) {
+            record += recordLength;
+            recordLength = window.getShort(record) & 0xffff;
+            left --;
+            return true;
+        }
+        // blocks without records are skipped
+        while(true) {
+            if(record >= 0)
+                block = windowStart + blockEnd;
+            if(size - block < GameRecordWriter.FRAME_BYTES) {
+                close();
+                return false;
+            }
+            map(block, GameRecordWriter.FRAME_BYTES);
+            int at = (int) (block - windowStart);
+            int length = window.getInt(at + 4);
+            if(window.getInt(at) != GameRecordWriter.BLOCK_MAGIC || length < 0
+                || size - block - GameRecordWriter.FRAME_BYTES < length) {
+                damaged = true;
+                close();
+                return false;
+            }
+            map(block, GameRecordWriter.FRAME_BYTES + length);
+            at = (int) (block - windowStart);
+            int count = window.getInt(at + 8);
+            crc.reset();
+            crc.update(window.slice(at + GameRecordWriter.FRAME_BYTES, length));
+            if((int) crc.getValue() != window.getInt(at + 12)) {
+                damaged = true;
+                close();
+                return false;
+            }
+            blocks ++;
+            blockEnd = at + GameRecordWriter.FRAME_BYTES + length;
+            record = at + GameRecordWriter.FRAME_BYTES;
+            if(count > 0) {
+                recordLength = window.getShort(record) & 0xffff;
+                left = count - 1;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * method to get the number of moves of the current record
+     * @return int move count
+     */
+    public int moveCount() {
+        return window.get(record + 2) & 0xff;
+    }
+
+    /**
+     * method to get the result of the current record
+     * @return int TIE, X_WON or O_WON (see GameRecord)
+     */
+    public int result() {
+        return window.get(record + 3);
+    }
+
+    /**
+     * method to get the agent of one side of the current record
+     * @param x boolean side (true is X, false O)
+     * @return int agent (see GameRecord)
+     */
+    public int agent(boolean x) {
+        return window.get(record + (x ? 4 : 5));
+    }
+
+    /**
+     * method to check if the current record was played on a board geometry
+     * @param geo Geometry to compare with
+     * @return boolean if record has the geometry's rows, cols and connect
+     */
+    public boolean playedOn(Geometry geo) {
+        return window.get(record + 6) == geo.rows && window.get(record + 7) == geo.cols
+            && window.get(record + 8) == geo.connect;
+    }
+
+    /**
+     * method to get the seed of the current record
+     * @return long seed
+     */
+    public long seed() {
+        return window.getLong(record + 9);
+    }
+
+    /**
+     * method to get one move of the current record
+     * @param i int move number from 0
+     * @return int column played (1 - 15)
+     */
+    public int move(int i) {
+        int b = window.get(record + GameRecord.HEADER_BYTES + i / 2);
+        return (i % 2 == 0 ? b : b >>> 4) & 15;
+    }
+
+    /**
+     * method to copy the current record
+     * @param into GameRecord to fill
+     */
+    public void read(GameRecord into) {
+        into.decode(window, record);
+    }
+
+    // map a window holding the given bytes from a file offset, if the current
+    // one does not
+    private void map(long from, int bytes) throws IOException {
+        if(window != null && from >= windowStart && from + bytes <= windowStart + window.capacity())
+            return;
+        long length = Math.min(size - from, Math.max(WINDOW_BYTES, bytes));
+        window = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowStart = from;
+    }
+
+    private void close() throws IOException {
+        channel.close();
+        window = null;
+        left = 0;
+    }
+}
@@ -0,0 +1,125 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: GameRecordWriter.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Appends game records (see GameRecord.java) to a file in
+ * blocks. A block is a 16 byte little-endian frame
+ *   int magic       BLOCK_MAGIC
+ *   int length      bytes of records following the frame
+ *   int count       records in the block
+ *   int crc         CRC32 of the records
+ * followed by the records, so a reader can check each block and skip a
+ * partly written one at the end of a file.
+ *
+ * An append claims a block from a shared free list, adds the record and
+ * returns the block, so there are only as many blocks as appends running at
+ * once - however many threads, virtual or not, append over time. A full block
+ * is written at an offset the appending thread reserves by adding the block
+ * size to the end of file counter, with a positional FileChannel write -
+ * threads never wait for each other, and blocks land side by side. Records
+ * are written in the order their blocks filled, not necessarily the order
+ * they were appended. Call close once every thread has finished appending,
+ * it writes the blocks that are not full yet.
+ */
+
+public class GameRecordWriter implements Closeable {
+
+    public static final int BLOCK_MAGIC = 0x42473443; // "C4GB"
+    public static final int FRAME_BYTES = 16;
+    static final int BLOCK_BYTES = 64 * 1024;
+
+    final FileChannel channel;
+    final AtomicLong end;
+
+    // blocks no append is using, most recently returned first, and every
+    // block made, listed for close
+    final ConcurrentLinkedDeque<ByteBuffer> freeBlocks = new ConcurrentLinkedDeque<ByteBuffer>();
+    final ConcurrentLinkedQueue<ByteBuffer> allBlocks = new ConcurrentLinkedQueue<ByteBuffer>();
+
+    /**
+     * constructor to open a record file for appending, creating it if needed
+     * @param path String path of record file
+     * @throws IOException if the file cannot be opened
+     */
+    public GameRecordWriter(String path) throws IOException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        end = new AtomicLong(channel.size());
+    }
+
+    /**
+     * method to add a record to a free block, writing the block out first if
+     * it is full
+     * @param record GameRecord to append
+     * @throws IOException if the block cannot be written
+     */
+    public void append(GameRecord record) throws IOException {
+        ByteBuffer block = freeBlocks.pollFirst();
+        if(block == null)
+            block = newBlock();
+        if(block.remaining() < GameRecord.MAX_BYTES)
+            write(block);
+        record.encode(block);
+        block.putInt(8, block.getInt(8) + 1);
+        freeBlocks.addFirst(block);
+    }
+
+    /**
+     * method to write out every block, full or not, and close the file - no
+     * thread may append while or after it runs
+     * @throws IOException if a block cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            for(ByteBuffer block : allBlocks) {
+                if(block.position() > FRAME_BYTES)
+                    write(block);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * method to frame and write a block at a reserved offset and empty it
+     * @param block ByteBuffer of frame and records
+     * @throws IOException if the block cannot be written
+     */
+    void write(ByteBuffer block) throws IOException {
+        int length = block.position() - FRAME_BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(block.array(), FRAME_BYTES, length);
+        block.putInt(0, BLOCK_MAGIC);
+        block.putInt(4, length);
+        block.putInt(12, (int) crc.getValue());
+        block.flip();
+        long at = end.getAndAdd(block.limit());
+        while(block.hasRemaining())
+            at += channel.write(block, at);
+        block.clear();
+        block.putInt(8, 0);
+        block.position(FRAME_BYTES);
+    }
+
+    private ByteBuffer newBlock() {
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        block.position(FRAME_BYTES);
+        allBlocks.add(block);
+        return block;
+    }
+}
@@ -0,0 +1,193 @@
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: Geometry.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Board size and line length of a connect-N variant, with the
+ * bitboard layout generated for it. Squares are laid out like BitBoard,
+ * column by column from the bottom with one sentinel bit on top of each
+ * column, so a board fits a long as long as cols * (rows + 1) <= 64 - e.g.
+ * 6x7, 7x8 or 8x7, but not 8x9.
+ *
+ * STANDARD is the 6x7 connect-4 board and keeps using Board and BitBoard with
+ * their constant layout. Other geometries get a VariantBoard, a VariantBitBoard
+ * and their own LineTables, and are played by the Minimax tree search or, up
+ * to 15 columns, the in-place Search (see Minimax.java). The variant classes are only loaded once a variant is
+ * created, so standard games run the same code as before.
+ */
+
+public class Geometry {
+
+    public static final int MAX_CONNECT = 8;
+
+    public static final Geometry STANDARD = new Geometry(BitBoard.HEIGHT, BitBoard.WIDTH, 4);
+
+    public final int rows, cols, connect;
+
+    // bits per column including the sentinel, and playable squares
+    public final int h1, cells;
+
+    // one bit at the bottom of every column, and every playable square
+    public final long bottomRow, boardMask;
+
+    // bit shift between neighbours on a line - vertical, horizontal, diagonals
+    final int[] shifts;
+
+    // lines, rings and other square tables of this geometry
+    public final LineTables tables;
+
+    /**
+     * constructor to create geometry and its bitboard layout
+     * @param rows int number of rows
+     * @param cols int number of columns
+     * @param connect int pieces in a row needed to win
+     */
+    public Geometry(int rows, int cols, int connect) {
+        if(rows < 1 || cols < 1)
+            throw new IllegalArgumentException("Board must have at least one row and column");
+        if(cols * (rows + 1) > 64)
+            throw new IllegalArgumentException(rows + "x" + cols + " board needs " + cols * (rows + 1)
+                + " bits, a bitboard holds 64");
+        if(connect < 2 || connect > MAX_CONNECT || connect > Math.max(rows, cols))
+            throw new IllegalArgumentException("Connect " + connect + " is not playable on " + rows + "x" + cols);
+        this.rows = rows;
+        this.cols = cols;
+        this.connect = connect;
+        h1 = rows + 1;
+        shifts = new int[] {1, h1, h1 - 1, h1 + 1};
+        cells = rows * cols;
+        long bottom = 0;
+        for(int col = 0; col < cols; col++)
+            bottom |= 1L << (col * h1);
+        bottomRow = bottom;
+        boardMask = bottom * ((1L << rows) - 1);
+        boolean standard = rows == BitBoard.HEIGHT && cols == BitBoard.WIDTH && connect == 4;
+        tables = standard ? LineTables.STANDARD : new LineTables(rows, cols, connect);
+    }
+
+    /**
+     * method to read a geometry written as rows x cols, optionally x connect
+     * (e.g. 7x8 or 6x7x5) - connect defaults to 4
+     * @param spec String geometry
+     * @return Geometry STANDARD for 6x7x4, otherwise a new geometry
+     */
+    public static Geometry parse(String spec) {
+        String[] parts = spec.toLowerCase().split("x");
+        if(parts.length < 2 || parts.length > 3)
+            throw new IllegalArgumentException("Board should be rows x cols [x connect], not " + spec);
+        int rows = Integer.parseInt(parts[0]);
+        int cols = Integer.parseInt(parts[1]);
+        int connect = parts.length > 2 ? Integer.parseInt(parts[2]) : 4;
+        if(rows == STANDARD.rows && cols == STANDARD.cols && connect == STANDARD.connect)
+            return STANDARD;
+        return new Geometry(rows, cols, connect);
+    }
+
+    /**
+     * method to create a board of this geometry - call setBoard before play
+     * @return Board for STANDARD, VariantBoard otherwise
+     */
+    public Board newBoard() {
+        return this == STANDARD ? new Board() : VariantBoard.create(this);
+    }
+
+    /**
+     * method to create an empty bitboard for this geometry
+     * @return BitBoard for STANDARD, VariantBitBoard otherwise
+     */
+    public BitBoard newBitBoard() {
+        return this == STANDARD ? new BitBoard() : VariantBitBoard.create(this);
+    }
+
+    /**
+     * method to check a set of pieces for connect pieces in a row - each step
+     * doubles the run length found so far, so connect 4 takes two shift-ands per
+     * direction like BitBoard.isWin
+     * @param pos long bitmask of one player's pieces
+     * @return boolean if pieces contain a win
+     */
+    public boolean isWin(long pos) {
+        for(int shift : shifts) {
+            if(run(pos, shift) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * method to find every empty square that would complete a line for a set
+     * of pieces, whether or not it can be played yet
+     * @param pos long bitmask of one player's pieces
+     * @param mask long bitmask of all occupied squares
+     * @return long bitmask of winning squares
+     */
+    public long winningSquares(long pos, long mask) {
+        long r = 0;
+        for(int shift : shifts) {
+            // the empty square can be at any of the connect places of a line -
+            // with gap pieces before it and the rest after it
+            long before = ~0L;
+            for(int gap = 0; gap < connect; gap++) {
+                if(gap > 0)
+                    before &= gap * shift < 64 ? pos << (gap * shift) : 0;
+                long m = before;
+                for(int k = 1; k < connect - gap && m != 0; k++)
+                    m &= shiftDown(pos, k * shift);
+                r |= m;
+            }
+        }
+        return r & (boardMask ^ mask);
+    }
+
+    /**
+     * method to get bit of the top square of a column
+     * @param col int column index
+     * @return long single bit mask
+     */
+    public long topMask(int col) {
+        return 1L << (rows - 1 + col * h1);
+    }
+
+    /**
+     * method to get bit of the bottom square of a column
+     * @param col int column index
+     * @return long single bit mask
+     */
+    public long bottomMask(int col) {
+        return 1L << (col * h1);
+    }
+
+    /**
+     * method to get all playable squares of a column
+     * @param col int column index
+     * @return long bitmask of column
+     */
+    public long columnMask(int col) {
+        return ((1L << rows) - 1) << (col * h1);
+    }
+
+    @Override
+    public String toString() {
+        return rows + "x" + cols + " connect " + connect;
+    }
+
+    // squares starting a run of connect pieces in one direction
+    private long run(long pos, int shift) {
+        long m = pos;
+        int length = 1;
+        while(length < connect) {
+            int step = Math.min(length, connect - length);
+            m &= shiftDown(m, step * shift);
+            length += step;
+        }
+        return m;
+    }
+
+    // pieces moved down by a number of bits - Java shifts count mod 64, so a
+    // whole-word shift is done by hand
+    private static long shiftDown(long pos, int bits) {
+        return bits < 64 ? pos >>> bits : 0;
+    }
+}
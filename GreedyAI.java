@@ -1,3 +1,5 @@
+import java.util.Random;
+
 /**
  * CS311 Artificial Intelligence Final Project - Spring 2020
  * 
@@ -6,7 +8,8 @@
  * Updated: 5/15/20
  * 
  * Description: Greedy AI agent variation on the Minimax agent. Looks ahead to a
- * depth of 1 using similar heuristic functions to evaluate utility. 
+ * depth of 1 using similar heuristic functions to evaluate utility. Plays 
+ * whichever side is to move - X in the simulator, either side in tournaments. 
  */
 
 public class GreedyAI {
@@ -16,10 +19,22 @@ public class GreedyAI {
     public int POSINFINITY = 100000;
     Node root;
 
+    // source of move "randomness" - seed it to make games reproducible
+    public Random random = new Random(); 
+
+    // evaluate moves in place on the game board instead of on board copies
+    public boolean inPlace = false; 
+    Node scratch = new Node(); 
+
+    // opening book to play from instead of the fixed first moves - off by 
+    // default so simulated games still open with some variety
+    public OpeningBook book = null; 
+
     /**
      * method to create AI agent for current move - checks base cases and then 
      * runs greedy choice algorithm to determine next best move. Greedy AI plays 
-     * as the "X" piece (taking the place of human player and moving first)
+     * the side to move, in a simulated game the "X" piece (taking the place of 
+     * human player and moving first)
      * @param state current board state of connect-4 game 
      * @return int col, the column of the most recent move
      */
@@ -32,31 +47,39 @@ public class GreedyAI {
         root.isLeaf = false;
 
         // set player tokens
-        root.agentType = "X"; 
-        root.opType = "O"; 
+        boolean agentX = state.bits.moveCount % 2 == 0; 
+        root.agentType = agentX ? "X" : "O"; 
+        root.opType = agentX ? "O" : "X"; 
 
         // init col for best move 
         int col; 
+        boolean standard = state.geo == Geometry.STANDARD; 
+        int bookMove = book != null && standard ? book.probe(state) : -1; 
 
         // init opponent win condition variables in root node
         root.checkWinCondition(); 
        
+        // play book move if the position is in the opening book
+        if(bookMove > 0) {
+            col = bookMove; 
         // if first move, always go middle
-        if(root.board.moveCount == 0) {
+        } else if(book == null && standard && root.board.moveCount == 0) {
             col = 4; 
         // if second move, go to col 5 or 3 or middle again
-        } else if(root.board.moveCount == 2 && !root.board.boardArr[5][3].equals("X")) {
+        } else if(book == null && standard && root.board.moveCount == 2 && !root.board.boardArr[5][3].equals("X")) {
             if(root.board.lastHumanMove == 3) {
                 col = 5; 
             } else {
                 col = 3; 
             }
-        } else if(root.board.moveCount == 2 && root.board.boardArr[5][3].equals("X")) {
+        } else if(book == null && standard && root.board.moveCount == 2 && root.board.boardArr[5][3].equals("X")) {
             col = 4; 
-        } else if(root.blockingMove >= 0) { // check for opponent win conditions and block
-            col = root.blockingMove + 1; 
-        } else { // otherwise, call greedy choice
-            col = greedyChoice(root, depth, true).lastMove;
+        } else if(root.blockingMove > 0) { // check for opponent win conditions and block
+            col = root.blockingMove; 
+        } else if(inPlace) { // otherwise, call greedy choice
+            col = greedyChoiceInPlace(state); 
+        } else {
+            col = greedyChoice(root, depth, agentX).lastMove;
         }
 
         // return move
@@ -67,7 +90,8 @@ public class GreedyAI {
      * method to execute greedy selection for next move
      * @param node parent node board instance 
      * @param currDepth int depth of current node param in tree
-     * @param max boolean value indicating maximizing or minimizing level
+     * @param max boolean value indicating maximizing or minimizing level - 
+     * true plays X's moves, false O's 
      * @return node of best next board instance given current board state
      */
     public Node greedyChoice(Node node, int currDepth, boolean max) {
@@ -78,15 +102,15 @@ public class GreedyAI {
         double maxUtil = NEGINFINITY; 
         for (Node child : node.children) {
             // readjust default type settings 
-            child.agentType = "X"; 
-            child.opType = "O"; 
+            child.agentType = max ? "X" : "O"; 
+            child.opType = max ? "O" : "X"; 
             double utility = 0; 
             if(child != null) {
                 utility = child.evalUtility(); 
             }
 
             // incorporate element of "randomness" into moves 
-            double rand = Math.random(); 
+            double rand = random.nextDouble(); 
             if(utility >= (.65 * maxUtil) && rand < 0.5) {
                 bestChild = child; 
                 maxUtil = utility;
@@ -95,9 +119,54 @@ public class GreedyAI {
                 maxUtil = utility;
             }
         }
+        // every move loses - take the first rather than no move at all 
+        if(bestChild == null && node.children.size() > 0) 
+            bestChild = node.children.get(0); 
         return bestChild; 
     }
 
+    /**
+     * method to execute greedy selection for next move by playing and taking 
+     * back each move on the game board - same selection rule as greedyChoice
+     * @param state current board state of connect-4 game 
+     * @return int column of best next move 
+     */
+    public int greedyChoiceInPlace(Board state) {
+        boolean agentX = state.bits.moveCount % 2 == 0; 
+        scratch.board = state; 
+        scratch.agentType = agentX ? "X" : "O"; 
+        scratch.opType = agentX ? "O" : "X"; 
+
+        int bestCol = -1; 
+        double maxUtil = NEGINFINITY; 
+        for (int i = 1; i <= state.geo.cols; i++) {
+            if (!state.validMove(i)) 
+                continue; 
+            state.makeMove(i, agentX); 
+            scratch.lastMove = i; 
+            double utility = scratch.evalUtility(); 
+            state.undoMove(i); 
+
+            // incorporate element of "randomness" into moves 
+            double rand = random.nextDouble(); 
+            if(utility >= (.65 * maxUtil) && rand < 0.5) {
+                bestCol = i; 
+                maxUtil = utility;
+            } else if(utility > maxUtil) {
+                bestCol = i; 
+                maxUtil = utility;
+            }
+        }
+        // every move loses - take the first rather than no move at all 
+        if(bestCol < 0) {
+            for(int i = 1; i <= state.geo.cols && bestCol < 0; i++) {
+                if(state.validMove(i)) 
+                    bestCol = i; 
+            }
+        }
+        return bestCol; 
+    }
+
     /**
      * method to create all children boards based off viable moves, given a parent 
      * root board 
@@ -106,7 +175,7 @@ public class GreedyAI {
      * @param currDepth tree depth of the parent node
      */
     public void createChildren(Node parent, boolean isMax, int currDepth) {
-        for (int i = 1; i < 8; i++) {
+        for (int i = 1; i <= parent.board.geo.cols; i++) {
             if (parent.board.validMove(i)) {
                 // create new child board
                 Board temp = parent.board.copyBoard(); 
@@ -0,0 +1,293 @@
+import java.util.Arrays;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: LineTables.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Lookup tables over board squares, built once per Geometry.
+ * Squares use the bitboard bit index (col * (rows + 1) + row counted from the
+ * bottom) so tables can be used directly with bitboard masks. Holds the lines
+ * of connect squares a win can be made on (69 lines of four on the standard
+ * board), the lines through each square, and the neighborhood rings around
+ * each square used by Node.scoreNeighborhoods.
+ *
+ * The heuristic weights both Node and the Evaluator score with are defined
+ * here too, as integers ten times the Node weights.
+ *
+ * The static tables are those of the standard board, used by the Evaluator.
+ */
+
+public class LineTables {
+
+    // direction of each line
+    public static final int HORIZONTAL = 0;
+    public static final int VERTICAL = 1;
+    public static final int DIAGONAL = 2;
+    public static final int ANTI_DIAGONAL = 3;
+
+    // square owners, as indices into the ring weights
+    public static final int EMPTY = 0;
+    public static final int OWN = 1;
+    public static final int OPPONENT = 2;
+
+    // x10 neighborhood weights - every piece scores CENTER_WEIGHT, plus a
+    // weight by owner for each square of its inner and outer ring, and an own
+    // outer ring piece connected to it through the square between scores
+    // RING2_CONNECTED instead
+    public static final int CENTER_WEIGHT = 100;
+    public static final int[] RING1_WEIGHT = {5, 50, -50};
+    public static final int[] RING2_WEIGHT = {2, 30, -30};
+    public static final int RING2_CONNECTED = 90;
+
+    // tables of the standard board
+    public static final LineTables STANDARD = new LineTables(BitBoard.HEIGHT, BitBoard.WIDTH, 4);
+    public static final int SQUARES = STANDARD.squares;
+    public static final int[][] LINES = STANDARD.lines;
+    public static final long[] LINE_MASKS = STANDARD.lineMasks;
+    public static final int[] LINE_DIRECTION = STANDARD.lineDirection;
+    public static final int[][] LINES_THROUGH = STANDARD.linesThrough;
+    public static final int[][] RING1 = STANDARD.ring1;
+    public static final int[][] RING2 = STANDARD.ring2;
+    public static final int[][] RING2_MID = STANDARD.ring2Mid;
+    public static final int[][] MID_PAIRS = STANDARD.midPairs;
+    public static final int[][] LINE_WEIGHTS = STANDARD.lineWeights;
+
+    final int rows, cols, h1, connect;
+    public final int squares;
+
+    // every line as connect squares, and bitmask of each line
+    public final int[][] lines;
+    public final long[] lineMasks;
+    public final int[] lineDirection;
+
+    // ids of the lines through each square
+    public final int[][] linesThrough;
+
+    // squares at distance 1 (inner ring) and exactly 2 (outer ring) of each
+    // square, counting diagonal steps as 1
+    public final int[][] ring1, ring2;
+
+    // for each outer ring square, the square between it and the center if the
+    // two are on a row, column or diagonal - otherwise -1
+    public final int[][] ring2Mid;
+
+    // pairs of squares on a row, column or diagonal with the given square
+    // exactly between them, as {a0, b0, a1, b1, ...}
+    public final int[][] midPairs;
+
+    // x10 score of a line for each own piece in it, by own and opponent piece
+    // count (see lineWeight)
+    public final int[][] lineWeights;
+
+    /**
+     * constructor to build the tables of a board - see Geometry
+     * @param rows int number of rows
+     * @param cols int number of columns
+     * @param connect int pieces in a row needed to win
+     */
+    LineTables(int rows, int cols, int connect) {
+        this.rows = rows;
+        this.cols = cols;
+        this.connect = connect;
+        h1 = rows + 1;
+        squares = cols * h1;
+        lines = buildLines();
+        lineMasks = buildLineMasks();
+        lineDirection = buildLineDirections();
+        linesThrough = buildLinesThrough();
+        ring1 = buildRing(1);
+        ring2 = buildRing(2);
+        ring2Mid = buildRing2Mid();
+        midPairs = buildMidPairs();
+        lineWeights = new int[connect + 1][connect + 1];
+        for(int a = 0; a <= connect; a++) {
+            for(int o = 0; a + o <= connect; o++)
+                lineWeights[a][o] = lineWeight(a, o, connect);
+        }
+    }
+
+    /**
+     * method to get the x10 score of a line for one of its own pieces - each
+     * own piece of the line adds 3 times its count (3 + 6 + 9...), each space
+     * .1 and each opponent piece -3
+     * @param own int own pieces in the line
+     * @param opponent int opponent pieces in the line
+     * @param length int squares in the line
+     * @return int x10 line score
+     */
+    public static int lineWeight(int own, int opponent, int length) {
+        return 15 * own * (own + 1) + (length - own - opponent) - 30 * opponent;
+    }
+
+    /**
+     * method to get square index from board array coordinates on the standard board
+     * @param row int boardArr row (0 is top)
+     * @param col int boardArr column (0 - 6)
+     * @return int bit index of square
+     */
+    public static int square(int row, int col) {
+        return col * BitBoard.H1 + (BitBoard.HEIGHT - 1 - row);
+    }
+
+    /**
+     * method to get boardArr row of a square on the standard board
+     * @param square int bit index of square
+     * @return int boardArr row (0 is top)
+     */
+    public static int row(int square) {
+        return BitBoard.HEIGHT - 1 - square % BitBoard.H1;
+    }
+
+    /**
+     * method to get boardArr column of a square on the standard board
+     * @param square int bit index of square
+     * @return int boardArr column (0 - 6)
+     */
+    public static int col(int square) {
+        return square / BitBoard.H1;
+    }
+
+    /**
+     * method to get square index from board array coordinates
+     * @param row int boardArr row (0 is top)
+     * @param col int boardArr column
+     * @return int bit index of square
+     */
+    public int squareAt(int row, int col) {
+        return col * h1 + (rows - 1 - row);
+    }
+
+    private int rowOf(int square) {
+        return rows - 1 - square % h1;
+    }
+
+    private int colOf(int square) {
+        return square / h1;
+    }
+
+    private boolean onBoard(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    private int[][] buildLines() {
+        // directions as (row, col) steps: horizontal, vertical, both diagonals
+        int[][] dirs = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        int[][] found = new int[4 * rows * cols][];
+        int count = 0;
+        int last = connect - 1;
+        for(int[] d : dirs) {
+            for(int row = 0; row < rows; row++) {
+                for(int col = 0; col < cols; col++) {
+                    if(!onBoard(row + last * d[0], col + last * d[1]))
+                        continue;
+                    int[] line = new int[connect];
+                    for(int k = 0; k < connect; k++)
+                        line[k] = squareAt(row + k * d[0], col + k * d[1]);
+                    found[count++] = line;
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private int[] buildLineDirections() {
+        // lines are built one direction at a time, in the order above
+        int[] dirs = new int[lines.length];
+        for(int l = 0; l < lines.length; l++) {
+            int step = lines[l][1] - lines[l][0];
+            if(step == h1)
+                dirs[l] = HORIZONTAL;
+            else if(step == -1)
+                dirs[l] = VERTICAL;
+            else if(step == h1 - 1)
+                dirs[l] = DIAGONAL;
+            else
+                dirs[l] = ANTI_DIAGONAL;
+        }
+        return dirs;
+    }
+
+    private long[] buildLineMasks() {
+        long[] masks = new long[lines.length];
+        for(int l = 0; l < lines.length; l++) {
+            for(int sq : lines[l])
+                masks[l] |= 1L << sq;
+        }
+        return masks;
+    }
+
+    private int[][] buildLinesThrough() {
+        int[][] through = new int[squares][];
+        int[] ids = new int[4 * connect];
+        for(int sq = 0; sq < squares; sq++) {
+            int n = 0;
+            for(int l = 0; l < lines.length; l++) {
+                if((lineMasks[l] & (1L << sq)) != 0)
+                    ids[n++] = l;
+            }
+            through[sq] = Arrays.copyOf(ids, n);
+        }
+        return through;
+    }
+
+    private int[][] buildRing(int dist) {
+        int[][] rings = new int[squares][];
+        int[] cells = new int[16];
+        for(int sq = 0; sq < squares; sq++) {
+            int n = 0;
+            if(sq % h1 < rows) {
+                int row = rowOf(sq);
+                int col = colOf(sq);
+                for(int i = -dist; i <= dist; i++) {
+                    for(int j = -dist; j <= dist; j++) {
+                        if(Math.max(Math.abs(i), Math.abs(j)) == dist && onBoard(row + i, col + j))
+                            cells[n++] = squareAt(row + i, col + j);
+                    }
+                }
+            }
+            rings[sq] = Arrays.copyOf(cells, n);
+        }
+        return rings;
+    }
+
+    private int[][] buildRing2Mid() {
+        int[][] mids = new int[squares][];
+        for(int sq = 0; sq < squares; sq++) {
+            mids[sq] = new int[ring2[sq].length];
+            for(int k = 0; k < ring2[sq].length; k++) {
+                int q = ring2[sq][k];
+                int i = rowOf(q) - rowOf(sq);
+                int j = colOf(q) - colOf(sq);
+                if(i == 0 || j == 0 || Math.abs(i) == Math.abs(j))
+                    mids[sq][k] = squareAt(rowOf(sq) + i / 2, colOf(sq) + j / 2);
+                else
+                    mids[sq][k] = -1;
+            }
+        }
+        return mids;
+    }
+
+    private int[][] buildMidPairs() {
+        int[][] dirs = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        int[][] pairs = new int[squares][];
+        int[] cells = new int[8];
+        for(int sq = 0; sq < squares; sq++) {
+            int n = 0;
+            if(sq % h1 < rows) {
+                int row = rowOf(sq);
+                int col = colOf(sq);
+                for(int[] d : dirs) {
+                    if(onBoard(row - d[0], col - d[1]) && onBoard(row + d[0], col + d[1])) {
+                        cells[n++] = squareAt(row - d[0], col - d[1]);
+                        cells[n++] = squareAt(row + d[0], col + d[1]);
+                    }
+                }
+            }
+            pairs[sq] = Arrays.copyOf(cells, n);
+        }
+        return pairs;
+    }
+}
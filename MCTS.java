@@ -0,0 +1,451 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: MCTS.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Monte Carlo tree search agent (UCT), an alternative to Minimax
+ * with the same initAgent contract - it plays the side to move on the board it
+ * is given and makes its move there. Each playout walks down the tree by the
+ * UCT rule, adds the children of the node it stops at, plays the game out at
+ * random and scores every node on its path with the result. The move played
+ * is the root child visited most.
+ *
+ * The tree is an arena of node indices rather than Node objects: a node is a
+ * slot in parallel arrays holding its visits and reward, the square of the
+ * move that led to it and where its children start, so once the arena exists
+ * a search allocates nothing. Playouts run on plain longs in the bitboard
+ * layout of the board's geometry, and always take an immediate win, block an
+ * immediate loss and avoid playing under the opponent's winning square.
+ *
+ * With threads above 1 every thread walks the same tree (tree
+ * parallelization). On its way down a thread adds virtualLoss visits without
+ * reward to each node, making the line look worse to the other threads until
+ * its result comes back, so they spread over different lines. Statistics are
+ * updated with atomic adds and a node is expanded by the one thread that
+ * claims it, so the tree needs no locks.
+ */
+
+public class MCTS {
+
+    // wall-clock budget per move, used when playouts is 0
+    public long timeBudgetMs = 1000;
+
+    // fixed number of playouts per move instead of a time budget - with one
+    // thread the move then depends only on the seed
+    public long playouts = 0;
+
+    // threads walking the tree
+    public int threads = 1;
+
+    // UCT exploration constant, rewards are scored 0 (loss) to 1 (win)
+    public double exploration = 1.4;
+
+    // visits without reward added to a node while a playout through it runs
+    public int virtualLoss = 1;
+
+    // tree nodes in the arena - once full the tree stops growing and playouts
+    // start from its leaves
+    public int maxNodes = 1 << 20;
+
+    // base seed of the playout generators
+    public long seed = System.nanoTime();
+
+    // playouts, tree nodes and deepest tree line of the last search, and the
+    // expected result of the move played (0 loss - 1 win), -1 if not searched
+    public long lastPlayouts;
+    public int lastNodes, lastDepth;
+    public double lastValue;
+    public SearchStats lastStats = new SearchStats();
+
+    // node statistics - visits above VISIT_SHIFT, reward in half points below
+    // (2 a win, 1 a draw), one atomic add updates both. Visits fit 30 bits, so
+    // a search is good for 2^30 playouts
+    static final int VISIT_SHIFT = 34;
+    static final long VISIT = 1L << VISIT_SHIFT;
+    static final long REWARD_MASK = VISIT - 1;
+
+    // links of a node - children are counted in the low CHILD_BITS, the first
+    // child's index above them. 0 until expanded, EXPANDING while a thread
+    // adds the children and FULL if the arena had no room left
+    static final int CHILD_BITS = 6;
+    static final int EXPANDING = -1;
+    static final int FULL = -2;
+
+    AtomicLongArray stats;
+    AtomicIntegerArray links;
+    byte[] squares;
+    final AtomicInteger next = new AtomicInteger();
+
+    // position at the root - pieces of the side to move and of the opponent
+    long rootOwn, rootOpp, rootMask;
+
+    // layout of the board being searched
+    Geometry geo;
+    boolean standard;
+    int h1;
+    long bottomRow, boardMask;
+
+    Worker[] workers;
+    ExecutorService pool;
+
+    /**
+     * method to create AI agent for current move - takes an immediate win or
+     * blocks an immediate loss, otherwise searches until the budget runs out
+     * @param state current board state of connect-4 game
+     * @return int col, the column of the move made
+     */
+    public int initAgent(Board state) {
+        long start = System.nanoTime();
+        BitBoard bits = state.bits;
+        boolean agentX = bits.moveCount % 2 == 0;
+        geo = state.geo;
+        standard = geo == Geometry.STANDARD;
+        h1 = geo.h1;
+        bottomRow = geo.bottomRow;
+        boardMask = geo.boardMask;
+        rootOwn = bits.pieces(agentX);
+        rootOpp = bits.pieces(!agentX);
+        rootMask = bits.mask;
+
+        String source = SearchStats.BLOCK;
+        lastPlayouts = 0;
+        lastNodes = 0;
+        lastDepth = 0;
+        lastValue = -1;
+        long legal = (rootMask + bottomRow) & boardMask;
+        long wins = threats(rootOwn, rootMask) & legal;
+        long blocks = threats(rootOpp, rootMask) & legal;
+        int col;
+        if(wins != 0) {
+            col = columnOf(wins);
+            lastValue = 1;
+        } else if(blocks != 0) {
+            col = columnOf(blocks);
+        } else {
+            col = search(bits.moveCount);
+            source = SearchStats.SEARCH;
+        }
+
+        state.makeMove(col, agentX);
+
+        SearchStats s = lastStats;
+        s.clear();
+        s.source = source;
+        s.depth = lastDepth;
+        s.nodes = lastNodes;
+        s.leaves = lastPlayouts;
+        s.elapsedNanos = System.nanoTime() - start;
+        return col;
+    }
+
+    /**
+     * method to stop the search threads - the agent starts new ones if it is
+     * used again
+     */
+    public void shutdown() {
+        if(pool != null)
+            pool.shutdownNow();
+        pool = null;
+    }
+
+    /**
+     * method to run the playouts of one move from the root position
+     * @param moveCount int pieces on the board, mixed into the playout seeds
+     * @return int column of the root child visited most (1 - cols)
+     */
+    int search(int moveCount) {
+        // room for the root's children at least
+        int size = Math.max(maxNodes, 1 + geo.cols);
+        if(squares == null || squares.length != size) {
+            stats = new AtomicLongArray(size);
+            links = new AtomicIntegerArray(size);
+            squares = new byte[size];
+        }
+        int count = Math.max(1, threads);
+        if(workers == null || workers.length != count) {
+            shutdown();
+            workers = new Worker[count];
+            for(int i = 0; i < count; i++)
+                workers[i] = new Worker();
+        }
+        next.set(1);
+        stats.set(0, 0);
+        links.set(0, 0);
+        workers[0].expand(0, rootMask);
+
+        long deadline = playouts > 0 ? Long.MAX_VALUE : System.nanoTime() + timeBudgetMs * 1000000;
+        for(int i = 0; i < count; i++) {
+            Worker w = workers[i];
+            w.rng = seedFor(moveCount, i);
+            w.limit = playouts > 0 ? playouts / count + (i < playouts % count ? 1 : 0) : Long.MAX_VALUE;
+            w.deadline = deadline;
+        }
+        if(count == 1) {
+            workers[0].run();
+        } else {
+            if(pool == null) {
+                pool = Executors.newFixedThreadPool(count - 1, r -> {
+                    Thread t = new Thread(r, "mcts");
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+            Future<?>[] tasks = new Future<?>[count - 1];
+            for(int i = 1; i < count; i++)
+                tasks[i - 1] = pool.submit(workers[i]);
+            // the calling thread searches too
+            workers[0].run();
+            try {
+                for(Future<?> task : tasks)
+                    task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("MCTS worker failed", e.getCause());
+            }
+        }
+
+        for(Worker w : workers) {
+            lastPlayouts += w.playouts;
+            lastDepth = Math.max(lastDepth, w.maxDepth);
+        }
+        lastNodes = Math.min(next.get(), squares.length);
+
+        // most visited root child, ties to the better reward
+        int link = links.get(0);
+        int first = link >>> CHILD_BITS, children = link & ((1 << CHILD_BITS) - 1);
+        int best = first;
+        for(int c = first + 1; c < first + children; c++) {
+            long s = stats.get(c), b = stats.get(best);
+            if((s >>> VISIT_SHIFT) > (b >>> VISIT_SHIFT)
+                || ((s >>> VISIT_SHIFT) == (b >>> VISIT_SHIFT) && (s & REWARD_MASK) > (b & REWARD_MASK)))
+                best = c;
+        }
+        long b = stats.get(best);
+        long visits = b >>> VISIT_SHIFT;
+        lastValue = visits > 0 ? (b & REWARD_MASK) / (2.0 * visits) : 0;
+        return squares[best] / h1 + 1;
+    }
+
+    /**
+     * Playout state of one search thread
+     */
+    final class Worker implements Runnable {
+
+        // nodes on the current playout's path from the root
+        final int[] path = new int[65];
+        long rng, limit, deadline, playouts;
+        int maxDepth;
+
+        @Override
+        public void run() {
+            playouts = 0;
+            maxDepth = 0;
+            while(playouts < limit) {
+                // the clock is only read every 16 playouts
+                if((playouts & 15) == 0 && System.nanoTime() >= deadline)
+                    break;
+                playout();
+                playouts ++;
+            }
+        }
+
+        /**
+         * method to run one playout - select and expand in the tree, play out
+         * at random from the node reached and back the result up the path
+         */
+        void playout() {
+            long vl = virtualLoss * VISIT;
+            long own = rootOwn, opp = rootOpp, mask = rootMask;
+            int node = 0, len = 0;
+            path[len++] = 0;
+            long before = stats.getAndAdd(0, vl);
+            // reward of the last node on the path for the side that moved into it
+            int reward;
+            while(true) {
+                int link = links.get(node);
+                if(link == 0 && (before >>> VISIT_SHIFT) > 0)
+                    link = expand(node, mask);
+                if(link <= 0) {
+                    reward = 2 - rollout(own, opp, mask);
+                    break;
+                }
+                node = select(node, link);
+                long move = 1L << squares[node];
+                own |= move;
+                mask |= move;
+                before = stats.getAndAdd(node, vl);
+                path[len++] = node;
+                if(isWin(own)) {
+                    reward = 2;
+                    break;
+                }
+                if(mask == boardMask) {
+                    reward = 1;
+                    break;
+                }
+                long t = own;
+                own = opp;
+                opp = t;
+            }
+            if(len - 1 > maxDepth)
+                maxDepth = len - 1;
+            // the visit was counted on the way down, only the reward and the
+            // rest of the virtual loss are left
+            for(int i = len - 1; i >= 0; i--) {
+                stats.getAndAdd(path[i], reward + VISIT - vl);
+                reward = 2 - reward;
+            }
+        }
+
+        /**
+         * method to pick the child of a node with the best UCT value - an
+         * unvisited child is taken first
+         * @param node int index of node
+         * @param link int links of node
+         * @return int index of child
+         */
+        int select(int node, int link) {
+            int first = link >>> CHILD_BITS, count = link & ((1 << CHILD_BITS) - 1);
+            double logN = Math.log(stats.get(node) >>> VISIT_SHIFT);
+            int best = first;
+            double bestValue = -1;
+            for(int c = first; c < first + count; c++) {
+                long s = stats.get(c);
+                long visits = s >>> VISIT_SHIFT;
+                if(visits == 0)
+                    return c;
+                double value = (s & REWARD_MASK) / (2.0 * visits) + exploration * Math.sqrt(logN / visits);
+                if(value > bestValue) {
+                    bestValue = value;
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * method to add the children of a node, one per legal move - if another
+         * thread is adding them, or the arena is full, the node stays a leaf
+         * @param node int index of node
+         * @param mask long occupied squares at node
+         * @return int links of node, 0 or below if it was not expanded
+         */
+        int expand(int node, long mask) {
+            long legal = (mask + bottomRow) & boardMask;
+            int count = Long.bitCount(legal);
+            if(next.get() + count > squares.length || !links.compareAndSet(node, 0, EXPANDING))
+                return links.get(node);
+            int first = next.getAndAdd(count);
+            if(first + count > squares.length) {
+                links.set(node, FULL);
+                return FULL;
+            }
+            for(int c = first; c < first + count; c++) {
+                squares[c] = (byte) Long.numberOfTrailingZeros(legal);
+                legal &= legal - 1;
+                stats.set(c, 0);
+                links.set(c, 0);
+            }
+            // publishing the links makes the children visible to other threads
+            int link = first << CHILD_BITS | count;
+            links.set(node, link);
+            return link;
+        }
+
+        /**
+         * method to play a position out to the end - no allocation, the board
+         * is the three longs passed in
+         * @param own long pieces of the side to move
+         * @param opp long pieces of the other side
+         * @param mask long occupied squares
+         * @return int result for the side to move, 2 win, 1 draw, 0 loss
+         */
+        int rollout(long own, long opp, long mask) {
+            int result = 2;
+            while(true) {
+                long legal = (mask + bottomRow) & boardMask;
+                if(legal == 0)
+                    return 1;
+                if((threats(own, mask) & legal) != 0)
+                    return result;
+                long oppThreats = threats(opp, mask);
+                long move = oppThreats & legal;
+                if(move != 0) {
+                    // two threats lose anyway, the opponent takes the other
+                    move = Long.lowestOneBit(move);
+                } else {
+                    // keep out from under the opponent's winning squares
+                    long safe = legal & ~(oppThreats >>> 1);
+                    move = randomSquare(safe != 0 ? safe : legal);
+                }
+                own |= move;
+                mask |= move;
+                long t = own;
+                own = opp;
+                opp = t;
+                result = 2 - result;
+            }
+        }
+
+        /**
+         * method to pick one square of a set at random (xorshift64*)
+         * @param set long bitmask of squares, not empty
+         * @return long single bit mask
+         */
+        long randomSquare(long set) {
+            rng ^= rng >>> 12;
+            rng ^= rng << 25;
+            rng ^= rng >>> 27;
+            long r = (rng * 0x2545F4914F6CDD1DL) >>> 32;
+            int k = (int) ((r * Long.bitCount(set)) >>> 32);
+            for(; k > 0; k--)
+                set &= set - 1;
+            return Long.lowestOneBit(set);
+        }
+    }
+
+    /**
+     * method to find the empty squares that would complete a line for a set
+     * of pieces
+     * @param pos long bitmask of one player's pieces
+     * @param mask long bitmask of all occupied squares
+     * @return long bitmask of winning squares
+     */
+    long threats(long pos, long mask) {
+        return standard ? BitBoard.winningSquares(pos, mask) : geo.winningSquares(pos, mask);
+    }
+
+    /**
+     * method to check a set of pieces for a completed line
+     * @param pos long bitmask of one player's pieces
+     * @return boolean if pieces contain a win
+     */
+    boolean isWin(long pos) {
+        return standard ? BitBoard.isWin(pos) : geo.isWin(pos);
+    }
+
+    // column (1 - cols) of the lowest square of a set
+    private int columnOf(long squares) {
+        return Long.numberOfTrailingZeros(squares) / h1 + 1;
+    }
+
+    // nonzero xorshift state from the seed, position and thread (splitmix64)
+    private long seedFor(int moveCount, int worker) {
+        long z = seed + (moveCount * 64L + worker + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return z != 0 ? z : 1;
+    }
+}
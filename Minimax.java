@@ -1,3 +1,6 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
 /**
  * CS311 Artificial Intelligence Final Project - Spring 2020
  * 
@@ -6,7 +9,22 @@
  * Updated: 5/15/20
  * 
  * Description: Code for AI agent to make move in Connect-4. Uses minmax tree
- * with alpha-beta pruning. Called from driver file AIC4.java
+ * with alpha-beta pruning. Called from driver file AIC4.java. Set inPlace to 
+ * search with make/unmake on a single board (see Search.java) instead. Late 
+ * positions are solved exactly (see Solver.java). 
+ *
+ * The agent plays whichever side is to move on the board it is given - in a 
+ * game against the human that is always O. 
+ *
+ * Boards of other geometries (see Geometry.java) are searched in place too 
+ * when inPlace is set, on one thread, and otherwise with the tree search - the 
+ * opening book, fixed opening moves, position cache, solver and parallel 
+ * search are built for the standard board only. 
+ *
+ * A position and its mirror image are the same to every search and cache: 
+ * tables, the position cache, the book and the solver look positions up by 
+ * BitBoard.canonicalKey, and moves right of the center of a symmetric root 
+ * are not searched. 
  */
 
 public class Minimax {
@@ -16,6 +34,81 @@ public class Minimax {
     public int POSINFINITY = 100000;
     Node root;
 
+    // search in place on a single board instead of building a tree of copies
+    public boolean inPlace = false; 
+    Search search = new Search(); 
+
+    // transposition table size for the in-place search, 0 to disable
+    public int ttSizeMB = 16; 
+
+    // wall-clock budget per move for the in-place search, 0 to search to a 
+    // fixed depth instead of iterative deepening
+    public long timeBudgetMs = 0; 
+
+    // order moves (hash move, killers, history, center first) in the in-place 
+    // search - off searches columns 1 - 7 in order like createChildren
+    public boolean orderMoves = true; 
+
+    // score leaves with the incremental Evaluator instead of Node.evalUtility
+    public boolean incrementalEval = true; 
+
+    // keep transposition entries and move ordering data of the in-place 
+    // search from one move to the next - off starts every search cold 
+    public boolean reuse = true; 
+
+    // search in negamax form with principal variation search, aspiration 
+    // windows and (unless turned off) late move reductions - see Search.negamax
+    public boolean pvs = false; 
+    public boolean lateMoveReductions = true; 
+
+    // moves to score exactly at the root - above 1 the book, cache, solver 
+    // and win/block shortcuts are skipped and the serial in-place search 
+    // scores the best multiPV moves (see rootScore) 
+    public int multiPV = 1; 
+
+    // reuse counters since newGame - in-place searches, searches whose root 
+    // position an earlier search had stored, table probes, and probes answered 
+    // by an entry from an earlier search 
+    public long gameSearches, gameRootHits, gameProbes, gameReusedHits; 
+
+    // worker threads for the in-place search, above 1 splits root moves 
+    // across a thread pool (see ParallelSearch.java)
+    public int threads = 1; 
+    ParallelSearch parallel; 
+
+    // opening book consulted before the first-move rules and searching - 
+    // null plays the fixed first moves below instead
+    public OpeningBook book = OpeningBook.shared(); 
+
+    // persistent cache of chosen moves shared across agents, games and 
+    // processes (see PositionCache.java) - null to always search 
+    public PositionCache cache = null; 
+
+    // solve positions exactly once this few empty squares remain, 0 to turn 
+    // the solver off 
+    public int solverEmptyCells = 20; 
+    volatile Solver solver; 
+
+    // time taken by the last exact solve in ns, -1 if the last move was not solved
+    public long lastSolveNanos = -1; 
+
+    // x10 score of the last move for the side that played it, on the in-place 
+    // search's scale (forced wins WIN - plies) - 0 where no score is known: 
+    // blocks, fixed opening moves and the tree search 
+    public int lastScore; 
+
+    // bytes allocated by the last call to initAgent (-1 if not supported by JVM)
+    public long lastAllocatedBytes = -1; 
+
+    // fill lastStats on every move and add it to the EngineStats MBean - the 
+    // connect4.Search JFR event is also filled whenever a recording has it on
+    public boolean instrument = false; 
+    public SearchStats lastStats = new SearchStats(); 
+
+    // tree search counters, reset on every move 
+    long treeNodes, treeLeaves, treeCutoffs, treeFirstMoveCutoffs; 
+    final long[] treeCutoffsAt = new long[BitBoard.WIDTH]; 
+
     /**
      * method to create AI agent for current move - checks base cases and then 
      * runs minimax algorithm to determine next best move
@@ -23,42 +116,373 @@ public class Minimax {
      * @return int col, the column of the most recent move
      */
     public int initAgent(Board state) {
+        long allocStart = allocatedBytes(); 
+        SearchEvent event = new SearchEvent(); 
+        boolean record = instrument || event.isEnabled(); 
+        long start = record ? System.nanoTime() : 0; 
+        event.begin(); 
+        String source = SearchStats.SEARCH; 
+        boolean agentX = state.bits.moveCount % 2 == 0; 
+        boolean standard = state.geo == Geometry.STANDARD; 
+        boolean fits = Search.fits(state.geo); 
+        String agentType = agentX ? "X" : "O"; 
+        lastScore = 0; 
+
         // initialize root node as current board state
         root = new Node();
         root.board = state;
         root.isMaxPlayer = true;
         root.parent = null;
         root.isLeaf = false;
+        root.agentType = agentType; 
+        root.opType = agentX ? "O" : "X"; 
 
         // init col for best move 
         int col; 
+        int bookMove = book != null && standard ? book.probe(state) : -1; 
 
         // init opponent win condition variables in root node
         root.checkWinCondition(); 
+
+        // the search this position gets, to look up in the cache 
+        int cacheKind = cache != null && standard ? cacheKind(state) : -1; 
+        int cacheConfig = cacheKind > 0 ? cacheConfig(cacheKind) : 0; 
+        int cacheDepth = cacheKind == PositionCache.SOLVE ? 0 : depth; 
+        long cached = PositionCache.MISS; 
        
+        // several lines wanted - only the in-place search scores every move 
+        if(multiPV > 1 && fits) {
+            col = searchInPlace(state, agentType); 
+        // play book move if the position is in the opening book
+        } else if(bookMove > 0) {
+            col = bookMove; 
+            lastScore = book.score(state); 
+            source = SearchStats.OPENING; 
         // if AI first move, always go middle
-        if(root.board.moveCount == 1) {
+        } else if(book == null && standard && root.board.moveCount == 1) {
             col = 4; 
+            source = SearchStats.OPENING; 
         // if second move, go to col 5 or 3 or middle again
-        } else if(root.board.moveCount == 3 && !root.board.boardArr[5][3].equals("O")) {
+        } else if(book == null && standard && root.board.moveCount == 3 && !root.board.boardArr[5][3].equals("O")) {
             if(root.board.lastHumanMove == 3) {
                 col = 5; 
             } else {
                 col = 3; 
             }
-        } else if(root.board.moveCount == 3 && root.board.boardArr[5][3].equals("O")) {
+            source = SearchStats.OPENING; 
+        } else if(book == null && standard && root.board.moveCount == 3 && root.board.boardArr[5][3].equals("O")) {
             col = 4; 
-        } else if(root.blockingMove >= 0) { // check for opponent win conditions and block
-            col = root.blockingMove + 1; 
-        } else { // otherwise, call minimax
-            col = minimax(root, depth, NEGINFINITY, POSINFINITY, true).lastMove; 
+            source = SearchStats.OPENING; 
+        } else if(root.winningMove > 0) { // take a win on this move
+            col = root.winningMove; 
+            lastScore = Search.WIN - 1; 
+            source = SearchStats.BLOCK; 
+        } else if(root.blockingMove > 0) { // check for opponent win conditions and block
+            col = root.blockingMove; 
+            source = SearchStats.BLOCK; 
+        } else if(cacheKind > 0 && (cached = cache.probe(state, cacheKind, cacheConfig, cacheDepth)) != PositionCache.MISS) { // searched before
+            col = PositionCache.move(cached); 
+            lastScore = PositionCache.score(cached); 
+            source = SearchStats.CACHE; 
+        } else if(standard && Solver.CELLS - state.moveCount <= solverEmptyCells) { // solve late positions exactly
+            if(solver == null) 
+                solver = new Solver(ttSizeMB > 0 ? ttSizeMB : 16); 
+            // a stop that came before the solver was made still reaches it 
+            solver.stopRequested = search.stopRequested; 
+            col = solver.bestMove(state); 
+            lastScore = Solver.toSearchScore(solver.lastScore, state.moveCount); 
+            source = SearchStats.SOLVE; 
+        } else if(standard && inPlace && threads > 1) { // otherwise, call minimax
+            if(parallel == null || parallel.threads != threads) {
+                if(parallel != null) 
+                    parallel.shutdown(); 
+                parallel = new ParallelSearch(threads); 
+            }
+            parallel.setTableSize(ttSizeMB); 
+            parallel.setAgent(agentType); 
+            parallel.setOptions(orderMoves, incrementalEval, reuse); 
+            parallel.setPVS(pvs, lateMoveReductions); 
+            if(timeBudgetMs > 0) 
+                col = parallel.bestMoveTimed(state, timeBudgetMs); 
+            else 
+                col = parallel.bestMove(state, depth); 
+            lastScore = parallel.rootScore; 
+            countReuse(parallel.master.rootReused, parallel.ttProbes, parallel.reusedHits); 
+        } else if(inPlace && fits) {
+            col = searchInPlace(state, agentType); 
+        } else {
+            clearTreeCounters(); 
+            Node best = minimax(root, depth, NEGINFINITY, POSINFINITY, true); 
+            // every move loses - take the first rather than no move at all 
+            col = best != null ? best.lastMove : root.children.get(0).lastMove; 
         }
 
-        // make move in current board state
-        state.makeMove(col, false);
+        lastSolveNanos = SearchStats.SOLVE.equals(source) ? solver.lastSolveNanos : -1; 
+
+        // store what was searched for the next time the position comes up 
+        if(cacheKind > 0 && col > 0 && (SearchStats.SEARCH.equals(source) || SearchStats.SOLVE.equals(source))) 
+            cache.store(state, cacheKind, cacheConfig, cacheDepth, col, lastScore); 
+
+        // make move in current board state, unless the search was stopped 
+        // before it found one 
+        if(col > 0) 
+            state.makeMove(col, agentX);
+
+        if(record) {
+            event.end(); 
+            collectStats(source, System.nanoTime() - start); 
+            if(event.shouldCommit()) {
+                event.source = source; 
+                event.move = col; 
+                event.depth = lastStats.depth; 
+                event.nodes = lastStats.nodes; 
+                event.leaves = lastStats.leaves; 
+                event.cutoffs = lastStats.cutoffs; 
+                event.firstMoveCutoffs = lastStats.firstMoveCutoffs; 
+                event.branchingFactor = lastStats.branchingFactor(); 
+                event.commit(); 
+            }
+            if(instrument) 
+                EngineStats.get().add(lastStats); 
+        }
+
+        if(allocStart >= 0) 
+            lastAllocatedBytes = allocatedBytes() - allocStart; 
+        return col; 
+    }
+
+    /**
+     * method to run the serial in-place search 
+     * @param state current board state, agent to move 
+     * @param agentType String piece type of the side to move 
+     * @return int best column (1 - 7), or -1 if stopped before a move was found 
+     */
+    int searchInPlace(Board state, String agentType) {
+        search.setTableSize(ttSizeMB); 
+        search.setAgent(agentType); 
+        search.orderer.setAll(orderMoves); 
+        search.incrementalEval = incrementalEval; 
+        search.reuse = reuse; 
+        search.pvs = pvs; 
+        search.lateMoveReductions = lateMoveReductions; 
+        search.multiPV = multiPV; 
+        int col; 
+        if(timeBudgetMs > 0) 
+            col = search.bestMoveTimed(state, timeBudgetMs); 
+        else 
+            col = search.bestMove(state, depth); 
+        lastScore = search.rootScore; 
+        countReuse(search.rootReused, search.ttProbes, search.reusedHits); 
         return col; 
     }
 
+    /**
+     * method to get the score of every move at the root of the last search, 
+     * for the side to move - exact for the best multiPV moves 
+     * @param col int column (1 - 7) 
+     * @return int x10 score, Search.NEGINFINITY if the column was not searched 
+     */
+    public int rootScore(int col) {
+        return search.rootScores[col]; 
+    }
+
+    /**
+     * method to ask a running in-place search or solve on another thread to 
+     * stop - initAgent then returns the best move of the deepest completed 
+     * iteration, or -1 without moving if none was completed or the solve was 
+     * cut short 
+     */
+    public void stop() {
+        search.stopRequested = true; 
+        Solver s = solver; 
+        if(s != null) 
+            s.stopRequested = true; 
+    }
+
+    /**
+     * method to create an agent with the same settings and its own search 
+     * state, for running alongside this one 
+     * @return Minimax new agent 
+     */
+    public Minimax copySettings() {
+        Minimax copy = new Minimax(); 
+        copy.depth = depth; 
+        copy.inPlace = inPlace; 
+        copy.ttSizeMB = ttSizeMB; 
+        copy.timeBudgetMs = timeBudgetMs; 
+        copy.orderMoves = orderMoves; 
+        copy.incrementalEval = incrementalEval; 
+        copy.reuse = reuse; 
+        copy.pvs = pvs; 
+        copy.lateMoveReductions = lateMoveReductions; 
+        copy.multiPV = multiPV; 
+        copy.book = book; 
+        copy.solverEmptyCells = solverEmptyCells; 
+        copy.cache = cache; 
+        return copy; 
+    }
+
+    /**
+     * method to get which kind of search a position gets, for the position 
+     * cache - timed searches reach different depths from run to run, so they 
+     * are not cached, nor are searches for several lines 
+     * @param state current board state 
+     * @return int PositionCache kind, or -1 if the search is not cached 
+     */
+    int cacheKind(Board state) {
+        if(multiPV > 1) 
+            return -1; 
+        if(Solver.CELLS - state.moveCount <= solverEmptyCells) 
+            return PositionCache.SOLVE; 
+        if(!inPlace) 
+            return PositionCache.TREE; 
+        return timeBudgetMs > 0 ? -1 : PositionCache.INPLACE; 
+    }
+
+    /**
+     * method to get the settings that decide which move a search picks, for 
+     * the position cache key - a solve picks the same move whatever they are 
+     * @param kind int PositionCache kind of the search 
+     * @return int settings as bits (0 - 8191) 
+     */
+    int cacheConfig(int kind) {
+        if(kind == PositionCache.SOLVE) 
+            return 0; 
+        // tables hold a power of two entries, so sizes that round alike match 
+        int tableBits = ttSizeMB > 0 ? 1 + Integer.numberOfTrailingZeros(Integer.highestOneBit(ttSizeMB)) : 0; 
+        return (pvs ? 1 : 0) 
+            | (pvs && lateMoveReductions ? 2 : 0) 
+            | (orderMoves ? 4 : 0) 
+            | (incrementalEval ? 8 : 0) 
+            | (book != null ? 16 : 0) 
+            | (reuse ? 32 : 0) 
+            | (threads > 1 ? 64 : 0) 
+            | Math.min(tableBits, 15) << 7; 
+    }
+
+    /**
+     * method to start a new game - resets the per-game reuse counters and 
+     * empties the tables and ordering data of the searches and the solver, so 
+     * results are only reused within a game and a game plays the same however 
+     * many games the agent played before it 
+     */
+    public void newGame() {
+        search.newGame(); 
+        if(parallel != null) 
+            parallel.newGame(); 
+        if(solver != null) 
+            solver.tt.newGame(); 
+        gameSearches = 0; 
+        gameRootHits = 0; 
+        gameProbes = 0; 
+        gameReusedHits = 0; 
+    }
+
+    /**
+     * method to add one in-place search to the per-game reuse counters 
+     * @param rootReused boolean if the root was stored by an earlier search 
+     * @param probes long table probes of the search 
+     * @param reusedHits long probes answered by an earlier search's entry 
+     */
+    void countReuse(boolean rootReused, long probes, long reusedHits) {
+        gameSearches ++; 
+        if(rootReused) 
+            gameRootHits ++; 
+        gameProbes += probes; 
+        gameReusedHits += reusedHits; 
+    }
+
+    /**
+     * method to get share of this game's searches that started from a root 
+     * position already in the table 
+     * @return double root hit rate (0 - 1) 
+     */
+    public double rootHitRate() {
+        return gameSearches == 0 ? 0 : (double) gameRootHits / gameSearches; 
+    }
+
+    /**
+     * method to get share of this game's table probes answered by an entry 
+     * from an earlier move's search 
+     * @return double reuse hit rate (0 - 1) 
+     */
+    public double reuseHitRate() {
+        return gameProbes == 0 ? 0 : (double) gameReusedHits / gameProbes; 
+    }
+
+    /**
+     * method to fill lastStats from the search that picked the last move
+     * @param source String how the move was chosen (see SearchStats)
+     * @param elapsedNanos long time taken to choose the move
+     */
+    void collectStats(String source, long elapsedNanos) {
+        SearchStats stats = lastStats; 
+        stats.clear(); 
+        stats.source = source; 
+        stats.elapsedNanos = elapsedNanos; 
+        if(SearchStats.SOLVE.equals(source)) {
+            stats.depth = Solver.CELLS - solver.bits.moveCount; 
+            stats.nodes = solver.nodes; 
+            return; 
+        }
+        if(!SearchStats.SEARCH.equals(source)) 
+            return; 
+        boolean standard = root.board.geo == Geometry.STANDARD; 
+        if(standard && inPlace && threads > 1 && multiPV <= 1) {
+            stats.depth = parallel.completedDepth; 
+            parallel.collect(stats); 
+        } else if(Search.fits(root.board.geo) && (inPlace || multiPV > 1)) {
+            stats.depth = search.completedDepth; 
+            search.collect(stats); 
+        } else {
+            stats.depth = depth; 
+            stats.nodes = treeNodes; 
+            stats.leaves = treeLeaves; 
+            stats.cutoffs = treeCutoffs; 
+            stats.firstMoveCutoffs = treeFirstMoveCutoffs; 
+            for(int i = 0; i < treeCutoffsAt.length; i++) 
+                stats.cutoffsAt[i] = treeCutoffsAt[i]; 
+        }
+    }
+
+    /**
+     * method to reset tree search counters 
+     */
+    void clearTreeCounters() {
+        treeNodes = 0; 
+        treeLeaves = 0; 
+        treeCutoffs = 0; 
+        treeFirstMoveCutoffs = 0; 
+        for(int i = 0; i < treeCutoffsAt.length; i++) 
+            treeCutoffsAt[i] = 0; 
+    }
+
+    /**
+     * method to count a pruned node in the tree search 
+     * @param index int position of the cutoff child among its siblings
+     */
+    void countCutoff(int index) {
+        treeCutoffs ++; 
+        // later children of a wide board count with the last column 
+        treeCutoffsAt[Math.min(index, treeCutoffsAt.length - 1)] ++; 
+        if(index == 0) 
+            treeFirstMoveCutoffs ++; 
+    }
+
+    /**
+     * method to get bytes allocated so far by the calling thread 
+     * @return long byte count, or -1 if the JVM does not track allocation
+     */
+    public static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean(); 
+        if(bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean; 
+            if(sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) 
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId()); 
+        }
+        return -1; 
+    }
+
     /**
      * method to execute the minimax algorithm 
      * @param node parent node board instance 
@@ -71,6 +495,7 @@ public class Minimax {
     public Node minimax(Node node, int currDepth, double alpha, double beta, boolean max) {
         // check base cases
         if (currDepth == 0 || node.isLeaf) {
+            treeLeaves ++; 
             return node;
         }
 
@@ -83,6 +508,7 @@ public class Minimax {
         if(max) {
             Node bestChild = null; 
             double maxUtil = NEGINFINITY; 
+            int index = 0; 
             for (Node child : node.children) {
                 double utility = 0; 
                 Node temp = minimax(child, currDepth - 1, alpha, beta, false);
@@ -99,13 +525,17 @@ public class Minimax {
                     alpha = maxUtil; 
                 
                 // prune if condition met
-                if(alpha >= beta) 
+                if(alpha >= beta) {
+                    countCutoff(index); 
                     break; 
+                }
+                index ++; 
             }
             return bestChild; 
         } else {
             Node bestChild = null; 
             double minUtil = POSINFINITY; 
+            int index = 0; 
             for (Node child : node.children) {
                 double utility = 0; 
                 Node temp = minimax(child, currDepth - 1, alpha, beta, true);
@@ -122,8 +552,11 @@ public class Minimax {
                     beta = minUtil; 
                 
                 // prune if condition met
-                if(alpha >= beta) 
+                if(alpha >= beta) {
+                    countCutoff(index); 
                     break; 
+                }
+                index ++; 
             }
             return bestChild; 
         }
@@ -137,17 +570,26 @@ public class Minimax {
      * @param currDepth tree depth of the parent node
      */
     public void createChildren(Node parent, boolean isMax, int currDepth) {
-        for (int i = 1; i < 8; i++) {
+        // moves right of the center of a symmetric root mirror those left of 
+        // it and score the same, and ties go to the leftmost child anyway 
+        int cols = parent.board.geo.cols; 
+        if(parent.parent == null && parent.board.bits.isSymmetric()) 
+            cols = (cols + 1) / 2; 
+        // max levels play the agent's piece, whichever side it is 
+        boolean agentX = parent.agentType.equals("X"); 
+        for (int i = 1; i <= cols; i++) {
             if (parent.board.validMove(i)) {
                 // create new child board
                 Board temp = parent.board.copyBoard(); 
-                temp.makeMove(i, !isMax);
+                temp.makeMove(i, isMax == agentX);
 
-                // create child node 
+                // create child node, scored for the same agent as the root 
                 Node child = new Node(); 
                 child.board = temp; 
                 child.parent = parent; 
                 child.lastMove = i; 
+                child.agentType = parent.agentType; 
+                child.opType = parent.opType; 
 
                 // set leaf status based on depth or winning board 
                 if(currDepth == 0) {
@@ -158,6 +600,7 @@ public class Minimax {
 
                 // add child node to parent
                 parent.children.add(child);
+                treeNodes ++; 
             }
         }
     }
@@ -0,0 +1,173 @@
+import java.util.Arrays;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: MoveOrderer.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Move ordering stage for the in-place search. Alpha-beta prunes
+ * the most when the best move is searched first, so moves are tried in this
+ * order:
+ *   1. the hash move (transposition table or previous iteration best move)
+ *   2. the two killer moves of the current ply (moves that caused a cutoff
+ *      in a sibling position)
+ *   3. remaining moves by history score (cutoffs caused by the same player
+ *      playing the same square anywhere in the tree), ties broken by a static
+ *      center-first order. Root moves skip history so their order, and with
+ *      it the move picked among equal scores, does not depend on earlier
+ *      searches
+ * Each stage can be switched off; with all of them off moves come in plain
+ * column order 1 - 7 like Minimax.createChildren. Boards of other widths get
+ * the same two orders over their own columns.
+ */
+
+public class MoveOrderer {
+
+    static final int[] CENTER_FIRST = {4, 3, 5, 2, 6, 1, 7};
+    static final int[] COLUMN_ORDER = {1, 2, 3, 4, 5, 6, 7};
+
+    public boolean centerFirst = true;
+    public boolean useHashMove = true;
+    public boolean useKillers = true;
+    public boolean useHistory = true;
+
+    // two killer columns per ply
+    final int[][] killers = new int[Search.MAX_PLY + 1][2];
+
+    // cutoff history per side (0 agent, 1 opponent) and bitboard square
+    final int[][] history = new int[2][64];
+
+    // static orders of the board width last set
+    int[] centerOrder = CENTER_FIRST;
+    int[] columnOrder = COLUMN_ORDER;
+
+    // sort keys for the list being ordered - lists are fully sorted before the
+    // search recurses so one array is enough
+    final int[] keys = new int[Search.MAX_COLS];
+
+    /**
+     * method to switch every ordering stage on or off
+     * @param on boolean enable all stages
+     */
+    public void setAll(boolean on) {
+        centerFirst = on;
+        useHashMove = on;
+        useKillers = on;
+        useHistory = on;
+    }
+
+    /**
+     * method to set the number of columns to order - the center-first order
+     * takes the columns nearest the center first, the left one of a tie first
+     * @param cols int number of columns (at most Search.MAX_COLS)
+     */
+    public void setColumns(int cols) {
+        if(cols == columnOrder.length)
+            return;
+        columnOrder = new int[cols];
+        centerOrder = new int[cols];
+        for(int col = 1; col <= cols; col++)
+            columnOrder[col - 1] = col;
+        int next = 0;
+        for(int distance = 0; next < cols; distance++) {
+            // twice the distance from the center, so even widths stay integers
+            for(int col = 1; col <= cols; col++) {
+                if(Math.abs(2 * col - cols - 1) == distance)
+                    centerOrder[next++] = col;
+            }
+        }
+    }
+
+    /**
+     * method to prepare for a new search - history is aged so recent cutoffs
+     * count for more. Killers are position specific: when the new root is
+     * plies below the last root, the killers of each ply move up that many
+     * plies, otherwise they are cleared
+     * @param plies int moves played since the last root, 0 if unrelated
+     */
+    public void newSearch(int plies) {
+        for(int p = 0; p < killers.length; p++) {
+            int from = p + plies;
+            boolean keep = plies > 0 && from < killers.length;
+            killers[p][0] = keep ? killers[from][0] : 0;
+            killers[p][1] = keep ? killers[from][1] : 0;
+        }
+        for(int[] side : history) {
+            for(int i = 0; i < side.length; i++)
+                side[i] >>= 1;
+        }
+    }
+
+    /**
+     * method to forget all killers and history
+     */
+    public void clear() {
+        newSearch(0);
+        for(int[] side : history)
+            Arrays.fill(side, 0);
+    }
+
+    /**
+     * method to fill a list with the legal moves of a position, best first
+     * @param moves int array of length 7 to fill with columns (1 - 7)
+     * @param board board of position, player to move given by max
+     * @param ply int distance from search root
+     * @param hashMove int column of best move from an earlier search, 0 if none
+     * @param max boolean if agent is to move
+     * @return int number of legal moves in list
+     */
+    public int orderMoves(int[] moves, Board board, int ply, int hashMove, boolean max) {
+        int[] base = centerFirst ? centerOrder : columnOrder;
+        int[] hist = history[max ? 0 : 1];
+        int count = 0;
+        for(int col : base) {
+            if(!board.validMove(col))
+                continue;
+            int key = 0;
+            if(useHashMove && col == hashMove) {
+                key = Integer.MAX_VALUE;
+            } else if(useKillers && col == killers[ply][0]) {
+                key = Integer.MAX_VALUE - 1;
+            } else if(useKillers && col == killers[ply][1]) {
+                key = Integer.MAX_VALUE - 2;
+            } else if(useHistory && ply > 0) {
+                key = hist[board.bits.nextSquare(col - 1)];
+            }
+
+            // insertion sort, equal keys keep base order
+            int i = count;
+            while(i > 0 && keys[i - 1] < key) {
+                keys[i] = keys[i - 1];
+                moves[i] = moves[i - 1];
+                i --;
+            }
+            keys[i] = key;
+            moves[i] = col;
+            count ++;
+        }
+        return count;
+    }
+
+    /**
+     * method to record a move that caused a beta cutoff - call after the move
+     * has been taken back
+     * @param board board of position the move was played in
+     * @param ply int distance from search root
+     * @param col int column that caused the cutoff
+     * @param depth int remaining depth of the position
+     * @param max boolean if agent was to move
+     */
+    public void recordCutoff(Board board, int ply, int col, int depth, boolean max) {
+        if(killers[ply][0] != col) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = col;
+        }
+        int[] hist = history[max ? 0 : 1];
+        int square = board.bits.nextSquare(col - 1);
+        // keep history keys well below the killer and hash move keys
+        if(hist[square] < (1 << 24))
+            hist[square] += depth * depth;
+    }
+}
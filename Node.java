@@ -10,7 +10,8 @@ import java.util.List;
  * Updated: 5/15/20
  * 
  * Description: Node class for AI Connect-4 minimax algorithm, evaluates board 
- * state utility via range of heuristics
+ * state utility via range of heuristics. On boards other than the standard 
+ * 6x7 the heuristics use the line and ring tables of the board's Geometry. 
  */
 
 public class Node {
@@ -28,7 +29,12 @@ public class Node {
     String agentType = "O"; 
     String opType = "X"; 
 
+    // columns (1 - 7) the agent must play to block the opponent or can play to 
+    // win straight away, -1 if none - set by checkWinCondition 
     int blockingMove = -1; 
+    int winningMove = -1; 
+    ThreatAnalyzer threats; 
+
 
     /**
      * method to evalute utility of the node based off the board arrangement 
@@ -58,23 +64,12 @@ public class Node {
             return MIN; 
 
         // avoid board if it creates a win condition for opponent
-        checkPreWinCondition(); 
-        if(blockingMove >= 0) {
+        if(checkPreWinCondition()) {
             return MIN;
         }
 
         // otherwise, score entire board layout for AI
-        for(int i = 0; i < 6; i++) {
-            for(int j = 0; j < 7; j++) {
-                if(board.boardArr[i][j].equals(agentType)) {
-                    double vertScore = scoreVerticals(i, j, agentType); 
-                    double horizScore = scoreHorizontals(i, j, agentType); 
-                    double diagScore = scoreDiagonals(i, j, agentType); 
-                    double neighborScore = scoreNeighborhoods(i, j, agentType); 
-                    utility += (vertScore + horizScore + diagScore + neighborScore); 
-                }
-            }
-        }
+        utility = scoreBoard(agentType) / 10.0; 
 
         return utility; 
     }
@@ -89,41 +84,33 @@ public class Node {
     }
 
     /**
-     * method to check board for winning arangement for opponent called from Minimax.java 
-     * before creating children - used to find blocking move
+     * method to check board for immediate wins of both players called from 
+     * Minimax.java before creating children - sets winningMove and blockingMove 
      */
     public void checkWinCondition() {
-        // get location of last move 
-        int col = board.lastHumanMove - 1; 
-        int row = 0; 
-
-        while(!board.boardArr[row][col].equals(opType) && row < 5) {
-            row ++; 
-        }
-
-        // call score methods on X for last move location - this will set globals if block needed 
-        scoreDiagonals(row, col, opType); 
-        scoreHorizontals(row, col, opType); 
-        scoreVerticals(row, col, opType); 
+        ThreatAnalyzer t = analyzeThreats(); 
+        boolean agent = agentType.equals("X"); 
+        winningMove = t.columnOf(t.immediateWins(agent)); 
+        blockingMove = t.columnOf(t.immediateWins(!agent)); 
     }
 
     /**
      * method to check board for pre winning arangement for opponent (i.e. a move that 
-     * gives opponent a winning move)
+     * gives opponent a winning move) - the opponent wins on its next move whatever 
+     * the agent does 
+     * @return boolean if the opponent wins next 
      */
-    public void checkPreWinCondition() {
-        // get location of last move 
-        int col = lastMove - 1; 
-        int row = 5; 
-
-        while(!board.boardArr[row][col].equals("_") && row > 0) {
-            row --; 
-        }
+    public boolean checkPreWinCondition() {
+        boolean agent = agentType.equals("X"); 
+        boolean agentToMove = (board.bits.moveCount % 2 == 0) == agent; 
+        return analyzeThreats().opponentWinsNext(agent, agentToMove); 
+    }
 
-        // call score methods on X for last move location - this will set globals if block needed 
-        scoreDiagonals(row, col, opType); 
-        scoreHorizontals(row, col, opType); 
-        scoreVerticals(row, col, opType); 
+    private ThreatAnalyzer analyzeThreats() {
+        if(threats == null) 
+            threats = new ThreatAnalyzer(); 
+        threats.analyze(board.bits); 
+        return threats; 
     }
 
     /****************************** HEURISTICS *******************************/
@@ -137,45 +124,10 @@ public class Node {
      * @return double score for neighborhood of piece row, col
      */
     public double scoreNeighborhoods(int row, int col, String type) {
-        double score = 10; 
-
-        for (int i = -3; i < 4; i++) {
-            // check col exists before referencing
-            if (row + i > 5 || row + i < 0)
-                continue; 
-
-            for (int j = -3; j < 4; j ++) {
-                // check row exists before referencing
-                if(col + j > 6 || col + j < 0)
-                    continue; 
-
-                if(i == 0 && j == 0) {
-                    continue; 
-                } else {
-                    if(Math.abs(i) <= 1 && Math.abs(j) <= 1) {
-                        if(board.boardArr[row + i][col + j].equals(type)) {
-                            score += 5; 
-                        } else if(board.boardArr[row + i][col + j].equals("_")) { 
-                            score += .5; 
-                        } else {
-                            score -= 5; 
-                        }
-                        continue; 
-                    } else if (Math.abs(i) <= 2 && Math.abs(j) <= 2) {
-                        if(board.boardArr[row + i][col + j].equals(type)) {
-                            int exp = pieceConnections(i, j, row, col, type); 
-                            score += Math.pow(3, exp); 
-                        } else if(board.boardArr[row + i][col + j].equals("_")) {
-                            score += .2; 
-                        } else {
-                            score -= 3;
-                        }
-                        continue; 
-                    }
-                }
-            }
-        }
-        return score; 
+        boolean player = type.equals("X"); 
+        LineTables t = board.geo.tables; 
+        int sq = t.squareAt(row, col); 
+        return neighborhoodScore(t.ring1[sq], t.ring2[sq], t.ring2Mid[sq], board.bits.pieces(player), board.bits.pieces(!player)) / 10.0; 
     }
     
     /**
@@ -183,82 +135,21 @@ public class Node {
      * @param row row location of square to examine
      * @param col col location of square to examine 
      * @param type piece type (X or O) to score for
-     * @return
+     * @return double score for rows through piece row, col
      */
     public double scoreHorizontals(int row, int col, String type) {
-        double score = 0; 
-        int edgeLeft = col - 3; 
-        if(edgeLeft < 0) 
-            edgeLeft = 0; 
-        int edgeRight = col + 3; 
-        if(edgeRight > 6) {
-            edgeRight = 6; 
-        }
-
-        for(int i = edgeLeft; i <= edgeRight - 3; i++) {
-            int typeCount = 0; 
-            int spaceCount = 0; 
-            int[] blockLocation = new int[2]; 
-            for(int j = 0; j < 4; j++) {
-                if(board.boardArr[row][i + j].equals(type)) {
-                    typeCount ++; 
-                    score += 3 * typeCount; 
-                } else if(board.boardArr[row][i + j].equals("_")) {
-                    spaceCount ++; 
-                    blockLocation[0] = row; 
-                    blockLocation[1] = (i + j); 
-                    score += .1; 
-                } else
-                    score -= 3; 
-            }
-            if(typeCount == 3 && spaceCount == 1 && type.equals(opType)) {
-                handleWinCondition(blockLocation); 
-            }
-        }         
-        
-        return score; 
+        return scoreLines(row, col, type, LineTables.HORIZONTAL); 
     }
 
-
     /**
      * method to score all verticals a given piece is a part of 
      * @param row row location of square to examine
      * @param col col location of square to examine 
      * @param type piece type (X or O) to score for
-     * @return
+     * @return double score for columns through piece row, col
      */
     public double scoreVerticals(int row, int col, String type) {
-        double score = 0; 
-        int edgeUpper = row - 3; 
-        if(edgeUpper < 0) 
-            edgeUpper = 0; 
-        int edgeLower = row + 3; 
-        if(edgeLower > 5) {
-            edgeLower = 5; 
-        }
-
-        for(int i = edgeUpper; i <= edgeLower - 3; i++) {
-            int typeCount = 0; 
-            int spaceCount = 0; 
-            int[] blockLocation = new int[2]; 
-            for(int j = 0; j < 4; j++) {
-                if(board.boardArr[i + j][col].equals(type)) {
-                    typeCount ++; 
-                    score += 3 * typeCount; 
-                } else if(board.boardArr[i + j][col].equals("_")) {
-                    spaceCount ++; 
-                    blockLocation[0] = i + j; 
-                    blockLocation[1] = col; 
-                    score += .1; 
-                } else
-                    score -= 3; 
-            }
-            if(typeCount == 3 && spaceCount == 1 && type.equals(opType)) {
-                handleWinCondition(blockLocation); 
-            }
-        }         
-        
-        return score; 
+        return scoreLines(row, col, type, LineTables.VERTICAL); 
     }
 
     /**
@@ -266,139 +157,90 @@ public class Node {
      * @param row row location of square to examine
      * @param col col location of square to examine 
      * @param type piece type (X or O) to score for
-     * @return
+     * @return double score for diagonals through piece row, col
      */
     public double scoreDiagonals(int row, int col, String type) {
-        double score = 0; 
-
-        // get edges to look for diagonals 
-        int edgeLower = (row + 3 > 5) ? 5 : row + 3; 
-        int edgeUpper = (row - 3 < 0) ? 0 : row - 3; 
-        int edgeRight = (col + 3 > 6) ? 6 : col + 3;     
-        int edgeLeft =  (col - 3 < 0) ? 0 : col - 3;
-
-        // get starting point for left to right diagonals 
-        int upperLeftRow = row; 
-        int upperLeftCol = col; 
+        return scoreLines(row, col, type, LineTables.DIAGONAL) + scoreLines(row, col, type, LineTables.ANTI_DIAGONAL); 
+    }
 
-        while(upperLeftRow > edgeUpper && upperLeftCol > edgeLeft) {
-            upperLeftRow --; 
-            upperLeftCol --; 
+    /**
+     * method to score every piece of a type with all four heuristics - same as 
+     * summing the score methods above over the pieces, without rescanning the 
+     * board or allocating 
+     * @param type piece type (X or O) to score for
+     * @return int total score x10
+     */
+    public int scoreBoard(String type) {
+        boolean player = type.equals("X"); 
+        long own = board.bits.pieces(player); 
+        long opp = board.bits.pieces(!player); 
+        if(board.geo != Geometry.STANDARD) 
+            return scoreVariant(board.geo, own, opp); 
+        int score = 0; 
+        long pieces = own; 
+        while(pieces != 0) {
+            int sq = Long.numberOfTrailingZeros(pieces); 
+            pieces &= pieces - 1; 
+            for(int l : LineTables.LINES_THROUGH[sq]) 
+                score += lineScore(LineTables.LINE_MASKS[l], LineTables.LINE_WEIGHTS, own, opp); 
+            score += neighborhoodScore(LineTables.RING1[sq], LineTables.RING2[sq], LineTables.RING2_MID[sq], own, opp); 
         }
+        return score; 
+    }
 
-        // evalute left to right diagonals 
-        while(upperLeftRow <= (edgeLower - 3) && upperLeftCol <= (edgeRight - 3)) {
-            int typeCount = 0; 
-            int spaceCount = 0; 
-            int[] blockLocation = new int[2]; 
-            for(int k = 0; k < 4; k++) {
-                if(board.boardArr[upperLeftRow + k][upperLeftCol + k].equals(type)) {
-                    typeCount ++; 
-                    score += (3 * typeCount); 
-                } else if(board.boardArr[upperLeftRow + k][upperLeftCol + k].equals("_")) {
-                    spaceCount ++; 
-                    blockLocation[0] = upperLeftRow + k; 
-                    blockLocation[1] = upperLeftCol + k; 
-                    score += .1; 
-                } else
-                    score -= 3; 
-            }
-            upperLeftRow ++; 
-            upperLeftCol ++; 
-            if(typeCount == 3 && spaceCount == 1 && type.equals(opType)) {
-                handleWinCondition(blockLocation); 
-            }
+    // scoreBoard with the tables of another geometry 
+    private static int scoreVariant(Geometry geo, long own, long opp) {
+        LineTables t = geo.tables; 
+        int score = 0; 
+        long pieces = own; 
+        while(pieces != 0) {
+            int sq = Long.numberOfTrailingZeros(pieces); 
+            pieces &= pieces - 1; 
+            for(int l : t.linesThrough[sq]) 
+                score += lineScore(t.lineMasks[l], t.lineWeights, own, opp); 
+            score += neighborhoodScore(t.ring1[sq], t.ring2[sq], t.ring2Mid[sq], own, opp); 
         }
+        return score; 
+    }
 
-        // get starting point for left to right diagonals 
-        int upperRightRow = row; 
-        int upperRightCol = col; 
-
-        while(upperRightRow > edgeUpper && upperRightCol < edgeRight) {
-            upperRightRow --; 
-            upperRightCol ++; 
-        }
-        
-        // evalute right to left diagonals 
-        while(upperRightRow <= (edgeLower - 3) && upperRightCol >= (edgeLeft + 3)) {
-            int typeCount = 0; 
-            int spaceCount = 0; 
-            int[] blockLocation = new int[2]; 
-            for(int k = 0; k < 4; k++) {
-                if(board.boardArr[upperRightRow + k][upperRightCol - k].equals(type)) {
-                    typeCount ++; 
-                    score += (3 * typeCount); 
-                } else if(board.boardArr[upperRightRow + k][upperRightCol - k].equals("_")) {
-                    spaceCount ++; 
-                    blockLocation[0] = upperLeftRow + k; 
-                    blockLocation[1] = upperLeftCol + k; 
-                    score += .1; 
-                } else
-                    score -= 3; 
-            }
-            upperRightRow ++; 
-            upperRightCol --; 
-            if(typeCount == 3 && spaceCount == 1 && type.equals(opType)) {
-                handleWinCondition(blockLocation); 
-            }
+    // score of the lines in one direction through a square 
+    private double scoreLines(int row, int col, String type, int direction) {
+        boolean player = type.equals("X"); 
+        long own = board.bits.pieces(player); 
+        long opp = board.bits.pieces(!player); 
+        LineTables t = board.geo.tables; 
+        int score = 0; 
+        for(int l : t.linesThrough[t.squareAt(row, col)]) {
+            if(t.lineDirection[l] == direction) 
+                score += lineScore(t.lineMasks[l], t.lineWeights, own, opp); 
         }
-        return score; 
+        return score / 10.0; 
     }
 
-    /**
-     * method to handle blocking situation - sets globals to indicate block necessary
-     * @param blockLocation int arr of block board location [row, col]
-     */
-    public void handleWinCondition(int[] blockLocation) {
-        blockingMove = blockLocation[1]; 
+    // x10 score of a line for one of its pieces, given the line's mask and the 
+    // weights for its length 
+    private static int lineScore(long m, int[][] weights, long own, long opp) {
+        return weights[Long.bitCount(m & own)][Long.bitCount(m & opp)]; 
     }
 
-    /**
-     * method to identify triple piece connections - called by all scoring methods 
-     * to get a multiplier when increasing score (i.e. triple and double connections
-     * are scored higher than a solo unconnected piece)
-     * @param i distance to check from row
-     * @param j distance to check from col
-     * @param row row location of square to examine
-     * @param col col location of square to examine 
-     * @param type piece type (X or O) to score for
-     * @return integer multiplier for scoring 
-     */
-    public int pieceConnections(int i, int j, int row, int col, String type) {
-        int mult = 1; 
-        if(i == 0) {
-            if(j < 0)
-                mult = board.boardArr[row + i][col + j + 1].equals(type) ? 2 : 1; 
-                // check i, j + 1  
-            else
-                // check i, j - 1
-                mult = board.boardArr[row + i][col + j - 1].equals(type) ? 2 : 1; 
-        } else if(j == 0) {
-            if(i < 0)
-                // check i + 1, j  
-                mult = board.boardArr[row + i + 1][col + j].equals(type) ? 2 : 1; 
-            else
-                // check i - 1, j
-                mult = board.boardArr[row + i - 1][col + j].equals(type) ? 2 : 1; 
-        } else if(Math.abs(j) == Math.abs(i)) {
-            if(j < 0) {
-                if(i < 0) {
-                    // check j +  1, i + 1
-                    mult = board.boardArr[row + i + 1][col + j + 1].equals(type) ? 2 : 1; 
-                } else {
-                    // check j +  1, i - 1
-                    mult = board.boardArr[row + i - 1][col + j + 1].equals(type) ? 2 : 1; 
-                }
-            } else {
-                if(i < 0) {
-                    // check j -  1, i + 1
-                    mult = board.boardArr[row + i + 1][col + j - 1].equals(type) ? 2 : 1; 
-                } else {
-                    // check j -  1, i - 1
-                    mult = board.boardArr[row + i - 1][col + j - 1].equals(type) ? 2 : 1; 
-                }
-            }
+    // x10 score of the neighborhood of a square, given its rings 
+    private static int neighborhoodScore(int[] ring1, int[] ring2, int[] mids, long own, long opp) {
+        int score = LineTables.CENTER_WEIGHT; 
+        for(int q : ring1) 
+            score += LineTables.RING1_WEIGHT[owner(q, own, opp)]; 
+        for(int k = 0; k < ring2.length; k++) {
+            int who = owner(ring2[k], own, opp); 
+            // own pieces connected to the center through the square between score 3^2
+            if(who == LineTables.OWN && mids[k] >= 0 && owner(mids[k], own, opp) == LineTables.OWN) 
+                score += LineTables.RING2_CONNECTED; 
+            else 
+                score += LineTables.RING2_WEIGHT[who]; 
         }
-        return mult; 
+        return score; 
+    }
+
+    private static int owner(int sq, long own, long opp) {
+        long bit = 1L << sq; 
+        return (own & bit) != 0 ? LineTables.OWN : (opp & bit) != 0 ? LineTables.OPPONENT : LineTables.EMPTY; 
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,161 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: OpeningBook.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Opening book of best moves for early positions, generated
+ * offline by deep search (see AIC4_Book.java). The book file is a 16 byte
+ * header (magic, version, max ply, record count) followed by 12 byte records
+ * sorted by position key:
+ *   long key     BitBoard.canonicalKey() of the position
+ *   int packed   score << 4 | best column (1 - 7)
+ * Scores are x10 heuristic scores for the side to move, as in Search. A
+ * position and its mirror image share one record, with the column for the
+ * orientation of the key, so the book holds about half the positions it
+ * would otherwise. Version 1 books were keyed by BitBoard.key().
+ *
+ * The file is memory-mapped read only and looked up by binary search, so
+ * opening a book costs no parsing and every JVM on a host shares the same
+ * pages. Lookups only read the buffer, so one book can serve any number of
+ * threads.
+ */
+
+public class OpeningBook {
+
+    public static final String DEFAULT_FILE = "book.bin";
+
+    static final int MAGIC = 0x43344f42; // "C4OB"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 12;
+
+    // book shared by agents that do not set their own
+    private static OpeningBook shared;
+    private static boolean sharedLoaded;
+
+    final MappedByteBuffer buffer;
+    public final int maxPly;
+    public final int size;
+
+    /**
+     * constructor to map a book file
+     * @param path String path of book file
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public OpeningBook(String path) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path, "r");
+             FileChannel channel = file.getChannel()) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if(buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            throw new IOException(path + " is not an opening book");
+        maxPly = buffer.getInt(8);
+        size = buffer.getInt(12);
+        if(buffer.capacity() != HEADER_BYTES + (long) size * RECORD_BYTES)
+            throw new IOException(path + " is truncated");
+    }
+
+    /**
+     * method to get the book in DEFAULT_FILE, mapped on first use
+     * @return OpeningBook default book, or null if there is no book file
+     */
+    public static synchronized OpeningBook shared() {
+        if(!sharedLoaded) {
+            sharedLoaded = true;
+            if(new File(DEFAULT_FILE).exists()) {
+                try {
+                    shared = new OpeningBook(DEFAULT_FILE);
+                } catch (IOException e) {
+                    System.err.println("Could not load opening book: " + e.getMessage());
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * method to find the book move for a position
+     * @param state current board state
+     * @return int book column (1 - 7), or -1 if the position is not in the book
+     */
+    public int probe(Board state) {
+        int offset = find(state);
+        if(offset < 0)
+            return -1;
+        int col = Search.orient(buffer.getInt(offset + 8) & 15, state.bits.isMirrored());
+        return state.validMove(col) ? col : -1;
+    }
+
+    /**
+     * method to get the book score of a position
+     * @param state current board state
+     * @return int x10 score for the side to move, 0 if not in the book
+     */
+    public int score(Board state) {
+        int offset = find(state);
+        return offset < 0 ? 0 : buffer.getInt(offset + 8) >> 4;
+    }
+
+    // binary search for the record of a position - returns its byte offset
+    private int find(Board state) {
+        if(state.bits.moveCount > maxPly)
+            return -1;
+        long key = state.bits.canonicalKey();
+        int lo = 0;
+        int hi = size - 1;
+        while(lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int offset = HEADER_BYTES + mid * RECORD_BYTES;
+            long k = buffer.getLong(offset);
+            if(k < key)
+                lo = mid + 1;
+            else if(k > key)
+                hi = mid - 1;
+            else
+                return offset;
+        }
+        return -1;
+    }
+
+    /**
+     * method to write a book file - records are sorted by key here
+     * @param path String path of book file
+     * @param maxPly int deepest ply covered by the book
+     * @param keys long array of position keys
+     * @param moves int array of best columns (1 - 7)
+     * @param scores int array of scores for the side to move
+     * @param count int number of records
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(String path, int maxPly, long[] keys, int[] moves, int[] scores, int count) throws IOException {
+        // sort record indexes by key
+        Integer[] index = new Integer[count];
+        for(int i = 0; i < count; i++)
+            index[i] = i;
+        Arrays.sort(index, (a, b) -> Long.compare(keys[a], keys[b]));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(maxPly);
+            out.writeInt(count);
+            for(int i = 0; i < count; i++) {
+                int r = index[i];
+                out.writeLong(keys[r]);
+                out.writeInt(scores[r] << 4 | moves[r]);
+            }
+        }
+    }
+}
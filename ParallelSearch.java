@@ -0,0 +1,250 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: ParallelSearch.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Multi-threaded version of the in-place search. Root moves are
+ * split across a ForkJoinPool: the first move in order is searched alone to
+ * get a score to beat, then the remaining moves are searched in parallel
+ * against that score, each by its own Search on its own board copy. All
+ * workers share one lock-free transposition table.
+ *
+ * The move picked is the same as a serial Search with exactDepthCutoffs at
+ * the same depth: moves that beat the first move's score come back with
+ * exact scores, the best is taken, and ties go to the earlier move in root
+ * order just as they do in Search.searchRoot. Every search here cuts off on
+ * same-depth entries only, so what another thread happened to store first
+ * cannot change a score.
+ */
+
+public class ParallelSearch {
+
+    final int threads;
+    final ForkJoinPool pool;
+
+    // master search owns move ordering at the root and the shared table
+    final Search master = new Search();
+    final Search[] workers = new Search[BitBoard.WIDTH];
+
+    final int[] rootMoves = new int[BitBoard.WIDTH];
+    final int[] scores = new int[BitBoard.WIDTH];
+    final ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[BitBoard.WIDTH];
+
+    Board board;
+    boolean aborted;
+    int completedDepth, rootScore;
+    long nodes, ttProbes, reusedHits;
+
+    /**
+     * constructor to create search with a pool of the given size
+     * @param threads int number of worker threads
+     */
+    public ParallelSearch(int threads) {
+        this.threads = threads;
+        pool = new ForkJoinPool(threads);
+        master.exactDepthCutoffs = true;
+        for(int i = 0; i < workers.length; i++) {
+            workers[i] = new Search();
+            workers[i].exactDepthCutoffs = true;
+        }
+    }
+
+    /**
+     * method to set which piece the search plays for
+     * @param type piece type of agent ("X" or "O")
+     */
+    public void setAgent(String type) {
+        master.setAgent(type);
+        for(Search worker : workers)
+            worker.setAgent(type);
+    }
+
+    /**
+     * method to set size of the shared transposition table
+     * @param sizeMB int table size in megabytes, 0 to disable
+     */
+    public void setTableSize(int sizeMB) {
+        master.setTableSize(sizeMB);
+        for(Search worker : workers)
+            worker.tt = master.tt;
+    }
+
+    /**
+     * method to forget the shared table and the ordering data of the master
+     * and every worker (see Search.newGame)
+     */
+    public void newGame() {
+        master.newGame();
+        for(Search worker : workers) {
+            worker.orderer.clear();
+            worker.hasLastRoot = false;
+        }
+    }
+
+    /**
+     * method to apply search options of the master to every worker
+     * @param orderMoves boolean enable move ordering
+     * @param incrementalEval boolean score leaves with Evaluator
+     * @param reuse boolean keep table and ordering data between searches
+     */
+    public void setOptions(boolean orderMoves, boolean incrementalEval, boolean reuse) {
+        master.orderer.setAll(orderMoves);
+        master.reuse = reuse;
+        for(Search worker : workers) {
+            worker.orderer.setAll(orderMoves);
+            worker.incrementalEval = incrementalEval;
+            worker.reuse = reuse;
+        }
+    }
+
+    /**
+     * method to search below the root with principal variation search - the
+     * root moves themselves are still split and searched as above
+     * @param pvs boolean search in negamax form (see Search.negamax)
+     * @param lateMoveReductions boolean reduce late moves a ply
+     */
+    public void setPVS(boolean pvs, boolean lateMoveReductions) {
+        for(Search worker : workers) {
+            worker.pvs = pvs;
+            worker.lateMoveReductions = lateMoveReductions;
+        }
+    }
+
+    /**
+     * method to find the best move to a fixed depth
+     * @param state current board state, agent to move
+     * @param depth int number of plies to search
+     * @return int best column (1 - 7)
+     */
+    public int bestMove(Board state, int depth) {
+        startSearch(state, 0);
+        int col = searchRoot(depth, master.prepareTable());
+        completedDepth = depth;
+        return col;
+    }
+
+    /**
+     * method to find the best move by iterative deepening within a time budget
+     * - see Search.bestMoveTimed
+     * @param state current board state, agent to move
+     * @param budgetMs long wall-clock budget in milliseconds
+     * @return int best column (1 - 7)
+     */
+    public int bestMoveTimed(Board state, long budgetMs) {
+        startSearch(state, budgetMs);
+        int hashMove = master.prepareTable();
+        int bestCol = -1;
+        int maxDepth = state.geo.cells - state.bits.moveCount;
+        for(int depth = 1; depth <= maxDepth; depth++) {
+            int col = searchRoot(depth, bestCol > 0 ? bestCol : hashMove);
+            if(aborted)
+                break;
+            bestCol = col;
+            completedDepth = depth;
+            for(Search worker : workers)
+                worker.completedDepth = depth;
+            if(rootScore >= Search.WIN - Search.MAX_PLY || rootScore <= -Search.WIN + Search.MAX_PLY)
+                break;
+        }
+        return bestCol;
+    }
+
+    /**
+     * method to give each worker a copy of the board and reset search state
+     * @param state current board state
+     * @param budgetMs long time budget in milliseconds, 0 for none
+     */
+    void startSearch(Board state, long budgetMs) {
+        board = state;
+        aborted = false;
+        completedDepth = 0;
+        nodes = 0;
+        ttProbes = 0;
+        reusedHits = 0;
+        master.startSearch(state, budgetMs);
+        for(Search worker : workers)
+            worker.startSearch(state.copyBoard(), budgetMs);
+    }
+
+    /**
+     * method to search all root moves to a fixed depth
+     * @param depth int number of plies to search
+     * @param firstCol int column to search first (0 for none)
+     * @return int best column (1 - 7), or -1 if the search was aborted
+     */
+    int searchRoot(int depth, int firstCol) {
+        int count = Search.dropMirroredMoves(rootMoves, master.orderer.orderMoves(rootMoves, board, 0, firstCol, true),
+            board.bits);
+
+        // eldest brother alone to get a score to beat
+        int alpha = workers[0].searchMove(rootMoves[0], depth, Search.NEGINFINITY);
+        scores[0] = alpha;
+        if(workers[0].aborted) {
+            finish();
+            return -1;
+        }
+
+        // younger brothers in parallel
+        for(int i = 1; i < count; i++) {
+            final int index = i;
+            final int bound = alpha;
+            tasks[i] = pool.submit(() -> {
+                scores[index] = workers[index].searchMove(rootMoves[index], depth, bound);
+            });
+        }
+        for(int i = 1; i < count; i++)
+            tasks[i].join();
+        finish();
+
+        int bestCol = rootMoves[0];
+        for(int i = 1; i < count; i++) {
+            if(workers[i].aborted)
+                return -1;
+            if(scores[i] > alpha) {
+                bestCol = rootMoves[i];
+                alpha = scores[i];
+            }
+        }
+        rootScore = alpha;
+        return bestCol;
+    }
+
+    /**
+     * method to collect node and table counters and abort state from workers
+     */
+    void finish() {
+        long total = 0;
+        long probes = 0;
+        long reused = 0;
+        for(Search worker : workers) {
+            total += worker.nodes;
+            probes += worker.ttProbes;
+            reused += worker.reusedHits;
+            aborted |= worker.aborted;
+        }
+        nodes = total;
+        ttProbes = probes;
+        reusedHits = reused;
+    }
+
+    /**
+     * method to add counters of the last search to a stats record
+     * @param stats SearchStats to add to
+     */
+    public void collect(SearchStats stats) {
+        for(Search worker : workers)
+            worker.collect(stats);
+    }
+
+    /**
+     * method to stop worker threads
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
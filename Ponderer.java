@@ -0,0 +1,193 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: Ponderer.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Searches on the human's time. While the human is choosing a
+ * column, background threads work out the AI's answer to the human's reply
+ * on board copies - either to the one reply the last search predicted, or to
+ * all seven replies at once. When the human moves, the answer to that reply
+ * is used and the other searches are stopped.
+ *
+ * Searches run on daemon threads and never touch the game board, so input
+ * handling is never blocked and an exit does not wait for them.
+ */
+
+public class Ponderer {
+
+    final boolean allReplies;
+    final ExecutorService pool;
+
+    // one agent per reply column (index 0 unused), or agents[1] only when
+    // pondering the predicted reply
+    final Minimax[] agents = new Minimax[BitBoard.WIDTH + 1];
+    final Future<?>[] tasks = new Future<?>[BitBoard.WIDTH + 1];
+    final int[] answers = new int[BitBoard.WIDTH + 1];
+    int predicted;
+
+    // agent that gave the last answer taken, its table predicts the next reply
+    Minimax answeredBy;
+
+    // replies that had a search started for them, and how many were not
+    public long hits, misses;
+
+    /**
+     * constructor to create ponderer with agents set up like the game agent
+     * @param agent Minimax agent playing the game
+     * @param allReplies boolean search every reply, otherwise only the predicted one
+     */
+    public Ponderer(Minimax agent, boolean allReplies) {
+        this.allReplies = allReplies;
+        int count = allReplies ? BitBoard.WIDTH : 1;
+        pool = Executors.newFixedThreadPool(count, r -> {
+            Thread t = new Thread(r, "ponder");
+            t.setDaemon(true);
+            return t;
+        });
+        for(int i = 1; i <= count; i++) {
+            // copies search on one thread each so a stop reaches them
+            agents[i] = agent.copySettings();
+            // seven tables at once share the memory of one
+            if(allReplies)
+                agents[i].ttSizeMB = Math.max(1, agent.ttSizeMB / 4);
+        }
+    }
+
+    /**
+     * method to start pondering - call once the AI has moved and it is the
+     * human's turn
+     * @param board current board state
+     * @param agent Minimax agent that made the last move, used to predict the
+     * reply if the move was not a pondered answer
+     */
+    public void start(Board board, Minimax agent) {
+        cancel();
+        Minimax last = answeredBy;
+        answeredBy = null;
+        if(!board.playing)
+            return;
+        if(allReplies) {
+            for(int col = 1; col <= BitBoard.WIDTH; col++) {
+                if(board.validMove(col))
+                    submit(board, col, agents[col]);
+            }
+        } else {
+            predicted = predictReply(board, last != null ? last : agent);
+            submit(board, predicted, agents[1]);
+        }
+    }
+
+    /**
+     * method to get the AI's answer to the human's move - waits for its search
+     * if it is still running and stops all others
+     * @param col int column the human played (1 - 7)
+     * @return int AI column (1 - 7), or -1 if that reply was not pondered
+     */
+    public int take(int col) {
+        Future<?> task = col >= 1 && col <= BitBoard.WIDTH ? tasks[col] : null;
+        tasks[col >= 1 && col <= BitBoard.WIDTH ? col : 0] = null;
+        cancel();
+        if(task == null) {
+            misses ++;
+            return -1;
+        }
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (ExecutionException e) {
+            return -1;
+        }
+        hits ++;
+        answeredBy = agentFor(col);
+        return answers[col];
+    }
+
+    /**
+     * method to stop every running search and wait for it to end, so its agent
+     * and answer slot are free for the next search
+     */
+    public void cancel() {
+        for(int col = 1; col <= BitBoard.WIDTH; col++) {
+            if(tasks[col] != null)
+                agentFor(col).stop();
+        }
+        boolean interrupted = false;
+        for(int col = 1; col <= BitBoard.WIDTH; col++) {
+            if(tasks[col] == null)
+                continue;
+            // a stopped search still finishes its answer - waiting here keeps
+            // two searches from ever sharing an agent
+            while(true) {
+                try {
+                    tasks[col].get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException | CancellationException e) {
+                    break;
+                }
+            }
+            tasks[col] = null;
+        }
+        if(interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * method to stop searching and release the threads
+     */
+    public void shutdown() {
+        cancel();
+        pool.shutdownNow();
+    }
+
+    private void submit(Board board, int col, Minimax agent) {
+        Board copy = board.copyBoard();
+        copy.makeMove(col, true);
+        copy.lastHumanMove = col;
+        answers[col] = -1;
+        agent.search.stopRequested = false;
+        if(!copy.playing)
+            return;
+        tasks[col] = pool.submit(() -> {
+            answers[col] = agent.initAgent(copy);
+        });
+    }
+
+    private Minimax agentFor(int col) {
+        return allReplies ? agents[col] : agents[1];
+    }
+
+    /**
+     * method to guess the human's reply - the opponent's best move stored by
+     * the agent's last in-place search, or the most central legal column
+     * @param board current board state, human to move
+     * @param agent Minimax agent that made the last move
+     * @return int predicted column (1 - 7)
+     */
+    static int predictReply(Board board, Minimax agent) {
+        TranspositionTable tt = agent.search.tt;
+        if(agent.inPlace && tt != null) {
+            // the table holds a position and its mirror image under one key
+            long entry = tt.probe(board.bits.canonicalKey());
+            int col = Search.orient(TranspositionTable.move(entry), board.bits.isMirrored());
+            if(entry != TranspositionTable.MISS && col > 0 && board.validMove(col))
+                return col;
+        }
+        for(int col : MoveOrderer.CENTER_FIRST) {
+            if(board.validMove(col))
+                return col;
+        }
+        return -1;
+    }
+}
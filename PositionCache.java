@@ -0,0 +1,252 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: PositionCache.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Persistent cache of the moves Minimax chose, kept off-heap in
+ * a memory-mapped file so it outlives the agent, the game and the JVM, and is
+ * shared by every process on the host that maps the same file. A position
+ * searched once is answered from the cache from then on.
+ *
+ * The file is a 64 byte header (magic, version, bucket count) followed by 64
+ * byte buckets, each a clock word, 8 unused bytes and three entries:
+ *   long clock   reference bit per entry (bits 0-2), clock hand (bits 8-9)
+ *   long key     entry key XOR data
+ *   long data    bits 0-31 score, 32-39 depth, 40-43 column, bit 63 set
+ * An entry key is BitBoard.canonicalKey() of the position (bits 0-48) with
+ * the kind of search (SOLVE, TREE or INPLACE, bits 49-50) and the settings of
+ * the agent that searched (bits 51-63, see Minimax.cacheConfig) above it,
+ * since each kind and each setting can pick its own move. A search is only
+ * answered by an entry of the same depth, so a cached move is the move the
+ * agent would have found itself. The column is stored for the orientation of
+ * the key - a position and its mirror image share an entry. Entries are on
+ * the standard board only, like the book and solver.
+ *
+ * Reads take no lock: like TranspositionTable the key word holds key XOR
+ * data, so an entry another thread or process is writing fails the key check
+ * and reads as a miss. Writers do not lock either; two writing the same
+ * bucket at once can lose one entry but never corrupt another. A full bucket
+ * evicts by clock - a hit sets the entry's reference bit, and the hand skips
+ * (and clears) referenced entries before evicting one. The only lock is the
+ * file lock held while a new file's header is written.
+ *
+ * Hit, miss and store counters are for this process only.
+ */
+
+public class PositionCache {
+
+    public static final String DEFAULT_FILE = "positions.cache";
+
+    // kinds of search an entry was made by
+    public static final int SOLVE = 1;
+    public static final int TREE = 2;
+    public static final int INPLACE = 3;
+
+    // data word of an empty slot
+    public static final long MISS = 0;
+
+    static final long MAGIC = 0x4334504f53434143L; // "C4POSCAC"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 64;
+    static final int BUCKET_BYTES = 64;
+    static final int ENTRIES = 3;
+
+    // every access is a whole aligned long, atomic across threads and processes
+    static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    final MappedByteBuffer buffer;
+    final int bucketBits;
+    public final int sizeMB;
+
+    public final LongAdder hits = new LongAdder();
+    public final LongAdder misses = new LongAdder();
+    public final LongAdder stores = new LongAdder();
+    public final LongAdder evictions = new LongAdder();
+
+    /**
+     * constructor to map a cache file, creating it at the given size if it
+     * does not exist - an existing cache keeps the size it was created with
+     * @param path String path of cache file
+     * @param sizeMB int size of a new cache in megabytes (1 - 1024, rounded
+     * down to a power of two buckets)
+     * @throws IOException if the file cannot be mapped or is not a cache
+     */
+    public PositionCache(String path, int sizeMB) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path, "rw");
+             FileChannel channel = file.getChannel()) {
+            // another process may be creating the same file
+            FileLock lock = channel.lock();
+            try {
+                if(channel.size() == 0) {
+                    long buckets = Long.highestOneBit(Math.max(1, Math.min(sizeMB, 1024)) * 1024L * 1024 / BUCKET_BYTES);
+                    file.setLength(HEADER_BYTES + buckets * BUCKET_BYTES);
+                    MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+                    header.order(ByteOrder.nativeOrder());
+                    header.putLong(8, VERSION);
+                    header.putLong(16, buckets);
+                    header.putLong(0, MAGIC);
+                    header.force();
+                }
+            } finally {
+                lock.release();
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        buffer.order(ByteOrder.nativeOrder());
+        long buckets = buffer.capacity() >= HEADER_BYTES ? buffer.getLong(16) : 0;
+        if(buffer.getLong(0) != MAGIC || buffer.getLong(8) != VERSION || Long.bitCount(buckets) != 1)
+            throw new IOException(path + " is not a position cache");
+        if(buffer.capacity() != HEADER_BYTES + buckets * BUCKET_BYTES)
+            throw new IOException(path + " is truncated");
+        bucketBits = Long.numberOfTrailingZeros(buckets);
+        this.sizeMB = (int) (buckets * BUCKET_BYTES >> 20);
+    }
+
+    /**
+     * method to look up a position
+     * @param state current board state
+     * @param kind int kind of search wanted (SOLVE, TREE or INPLACE)
+     * @param config int settings of the agent searching (0 - 8191)
+     * @param depth int depth wanted, 0 for SOLVE
+     * @return long packed data word, or MISS
+     */
+    public long probe(Board state, int kind, int config, int depth) {
+        long key = key(state, kind, config);
+        boolean mirrored = state.bits.isMirrored();
+        int bucket = bucket(key);
+        for(int i = 0; i < ENTRIES; i++) {
+            int at = bucket + 16 + i * 16;
+            long k = (long) LONG.getAcquire(buffer, at);
+            long data = (long) LONG.getAcquire(buffer, at + 8);
+            if(data != MISS && (k ^ data) == key && depth(data) == Math.min(depth, 255)
+                && state.validMove(Search.orient(move(data), mirrored))) {
+                // only write the clock word when the bit is not set yet
+                long clock = (long) LONG.getOpaque(buffer, bucket);
+                if((clock & (1L << i)) == 0)
+                    LONG.getAndBitwiseOr(buffer, bucket, 1L << i);
+                hits.increment();
+                return withMove(data, Search.orient(move(data), mirrored));
+            }
+        }
+        misses.increment();
+        return MISS;
+    }
+
+    /**
+     * method to store the move chosen for a position - replaces a stored
+     * entry for the same position and depth
+     * @param state board state the move was chosen in
+     * @param kind int kind of search (SOLVE, TREE or INPLACE)
+     * @param config int settings of the agent that searched (0 - 8191)
+     * @param depth int search depth (0 - 255), 0 for SOLVE
+     * @param col int column chosen (1 - 7)
+     * @param score int score of the move for the side to move
+     */
+    public void store(Board state, int kind, int config, int depth, int col, int score) {
+        long key = key(state, kind, config);
+        int bucket = bucket(key);
+        col = Search.orient(col, state.bits.isMirrored());
+        long data = (score & 0xffffffffL) | (long) Math.min(depth, 255) << 32 | (long) col << 40 | 1L << 63;
+        int slot = -1;
+        for(int i = 0; i < ENTRIES && slot < 0; i++) {
+            int at = bucket + 16 + i * 16;
+            long old = (long) LONG.getAcquire(buffer, at + 8);
+            if(old == MISS) {
+                slot = i;
+            } else if(((long) LONG.getAcquire(buffer, at) ^ old) == key && depth(old) == depth(data)) {
+                slot = i;
+            }
+        }
+        if(slot < 0) {
+            slot = evict(bucket);
+            evictions.increment();
+        }
+        // data first, so the entry reads as a miss until its key is written
+        int at = bucket + 16 + slot * 16;
+        LONG.setRelease(buffer, at + 8, data);
+        LONG.setRelease(buffer, at, key ^ data);
+        stores.increment();
+    }
+
+    /**
+     * method to get share of probes answered by the cache
+     * @return double hit rate (0 - 1)
+     */
+    public double hitRate() {
+        long h = hits.sum(), total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * method to get the column of a data word
+     * @param data long packed data word
+     * @return int column (1 - 7)
+     */
+    public static int move(long data) {
+        return (int) (data >>> 40) & 15;
+    }
+
+    /**
+     * method to get the score of a data word
+     * @param data long packed data word
+     * @return int score for the side to move
+     */
+    public static int score(long data) {
+        return (int) data;
+    }
+
+    /**
+     * method to get the search depth of a data word
+     * @param data long packed data word
+     * @return int depth
+     */
+    public static int depth(long data) {
+        return (int) (data >>> 32) & 255;
+    }
+
+    // clock sweep over a full bucket - clears reference bits as it passes
+    // them and returns the first unreferenced entry
+    private int evict(int bucket) {
+        long seen = (long) LONG.getAcquire(buffer, bucket);
+        long clock = seen;
+        int hand = (int) (clock >>> 8) & 3;
+        for(int step = 0; step <= ENTRIES; step++) {
+            hand = hand % ENTRIES;
+            if((clock & (1L << hand)) == 0)
+                break;
+            clock &= ~(1L << hand);
+            hand ++;
+        }
+        hand = hand % ENTRIES;
+        // a lost race only means a less exact clock, so one attempt is enough
+        long updated = (clock & ~0x300L) | (long) ((hand + 1) % ENTRIES) << 8;
+        LONG.compareAndSet(buffer, bucket, seen, updated);
+        return hand;
+    }
+
+    private int bucket(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return HEADER_BYTES + (int) (hash >>> (64 - bucketBits)) * BUCKET_BYTES;
+    }
+
+    private static long key(Board state, int kind, int config) {
+        return state.bits.canonicalKey() | (long) kind << 49 | (long) config << 51;
+    }
+
+    // data word with its column replaced
+    private static long withMove(long data, int col) {
+        return (data & ~(15L << 40)) | (long) col << 40;
+    }
+}
@@ -0,0 +1,912 @@
+import java.util.Arrays;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: Search.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: In-place minimax search with alpha-beta pruning. Instead of
+ * building a tree of copied boards (see Minimax.createChildren) moves are
+ * played and taken back on a single board using a move stack, so memory use
+ * is O(depth) and no Board or Node objects are created per searched position.
+ * Leaves are scored with the same Node heuristics as the tree search, scaled
+ * by 10 to integers (every heuristic weight is a multiple of 0.1) - either
+ * incrementally by Evaluator (default) or by running Node.evalUtility.
+ *
+ * Set pvs to search in negamax form instead: the first move of every position
+ * gets the full window and the rest a zero window that is widened only when a
+ * move beats the first (principal variation search), late moves are searched
+ * a ply shallower unless they turn out to beat alpha, and every iteration of
+ * the deepening loop starts from a narrow aspiration window around the
+ * previous iteration's score. A fixed-depth search then deepens to the given
+ * depth as well. Without reductions the scores are the same as alpha-beta's.
+ *
+ * A position and its left-right mirror image score the same, so they share
+ * one table entry under the canonical key (see BitBoard.canonicalKey), with
+ * the stored move turned to the probing position's orientation. At a
+ * symmetric root only the center and the moves left of it are searched.
+ *
+ * Boards of other geometries (see Geometry.java) are searched the same way,
+ * with their own bitboard keys, heuristic tables and column order, as long as
+ * their columns fit the table's move field. The table, history and killers
+ * are dropped when the geometry changes, like on a change of side.
+ */
+
+public class Search {
+
+    // scores at or beyond WIN - MAX_PLY are wins/losses, closer wins score higher.
+    // MAX_PLY covers the squares of any board a bitboard holds, MAX_COLS the
+    // columns a table entry's move field holds
+    public static final int WIN = 1000000;
+    public static final int MAX_PLY = 64;
+    public static final int MAX_COLS = 15;
+    public static final int NEGINFINITY = -WIN - 1;
+    public static final int POSINFINITY = WIN + 1;
+
+    Board board;
+    Geometry geo = Geometry.STANDARD;
+    boolean standard = true;
+    String agentType = "O";
+    String opType = "X";
+    boolean agentPlayer = false;
+
+    // incremental heuristics kept in step with the board, or a scratch node to
+    // run Node.evalUtility on the shared board
+    public boolean incrementalEval = true;
+    final Evaluator evaluator = new Evaluator();
+    final Node scratch = new Node();
+    final ThreatAnalyzer threats = new ThreatAnalyzer();
+
+    // columns played below the root, in order
+    final int[] moveStack = new int[MAX_PLY + 1];
+    int ply;
+
+    // optional transposition table, null when disabled
+    TranspositionTable tt;
+
+    // move ordering and one preallocated move list per ply
+    final MoveOrderer orderer = new MoveOrderer();
+    final int[][] moveLists = new int[MAX_PLY + 1][MAX_COLS];
+
+    long nodes, ttCutoffs;
+
+    // interior nodes searched, nodes cut off by alpha-beta, and cutoffs on the
+    // first move tried - the closer those two are the better the ordering
+    long interiorNodes, cutoffs, firstMoveCutoffs;
+
+    // leaves scored, and cutoffs by position of the cutoff move in its list -
+    // moves past the seventh of a wider board count with the seventh
+    long leaves;
+    final long[] cutoffsAt = new long[BitBoard.WIDTH];
+
+    // cross-turn reuse - table entries, history and killers are kept from
+    // one search to the next. Killers move up two plies when the new root is a
+    // grandchild of the last one, and the root's stored best move is searched
+    // first. Counts probes that hit an entry left by an earlier search
+    public boolean reuse = true;
+    final BitBoard lastRoot = new BitBoard();
+    boolean hasLastRoot, rootReused;
+    long ttProbes, reusedHits;
+
+    // principal variation search in negamax form, reducing late moves by a
+    // ply - see negamax
+    public boolean pvs = false;
+    public boolean lateMoveReductions = true;
+
+    // moves from this index in the ordered list are reduced at this depth and
+    // deeper, and the aspiration window is this far either side of the last
+    // score (x10 heuristic units), quadrupled on every failure
+    static final int LMR_MOVES = 3;
+    static final int LMR_DEPTH = 3;
+    static final int ASPIRATION_WINDOW = 50;
+
+    // zero window searches repeated with a full window, reduced searches
+    // repeated at full depth, and aspiration windows the root score fell outside
+    long researches, reductions, verifiedReductions, aspirationFails;
+
+    // root moves to score exactly - above 1 every root move is searched
+    // against the multiPV-th best score instead of the best. rootScores holds
+    // the score of each column (index 1 - 7) at the last completed depth,
+    // exact for the best multiPV moves and an upper bound for the rest,
+    // NEGINFINITY for columns that cannot be played
+    public int multiPV = 1;
+    final int[] rootScores = new int[MAX_COLS + 1];
+    final int[] iterationScores = new int[MAX_COLS + 1];
+
+    // let only entries searched to exactly the remaining depth cut off,
+    // instead of any at least as deep - a score then depends on position and
+    // depth alone and not on what the table holds, which ParallelSearch needs
+    // for its workers sharing one table to agree with a serial search
+    public boolean exactDepthCutoffs = false;
+
+    // set from another thread to abandon the search - the search then
+    // returns -1 if no depth was completed
+    public volatile boolean stopRequested;
+
+    // time control for iterative deepening
+    boolean timed, aborted;
+    long deadline;
+    int completedDepth, rootScore;
+
+    /**
+     * method to check if boards of a geometry can be searched - table entries
+     * hold columns up to MAX_COLS
+     * @param geo Geometry of the board
+     * @return boolean if the search can play the board
+     */
+    public static boolean fits(Geometry geo) {
+        return geo.cols <= MAX_COLS;
+    }
+
+    /**
+     * method to set which piece the search plays for
+     * @param type piece type of agent ("X" or "O")
+     */
+    public void setAgent(String type) {
+        // table scores and history are kept from the agent's side, so they
+        // are dropped when it changes
+        if(agentPlayer != type.equals("X"))
+            newGame();
+        agentType = type;
+        opType = type.equals("X") ? "O" : "X";
+        agentPlayer = type.equals("X");
+    }
+
+    /**
+     * method to set transposition table size - the table is kept between 
+     * searches and only reallocated when the size changes
+     * @param sizeMB int table size in megabytes, 0 to disable
+     */
+    public void setTableSize(int sizeMB) {
+        if(sizeMB <= 0) {
+            tt = null;
+        } else if(tt == null || tt.sizeMB != sizeMB) {
+            tt = new TranspositionTable(sizeMB);
+        }
+    }
+
+    /**
+     * method to forget everything kept from earlier searches - table entries,
+     * killers, history and the last root - so a game is searched the same way
+     * whatever the agent searched before it
+     */
+    public void newGame() {
+        if(tt != null)
+            tt.newGame();
+        orderer.clear();
+        hasLastRoot = false;
+    }
+
+    /**
+     * method to check if a table entry was searched deep enough to cut off at
+     * the given remaining depth (see exactDepthCutoffs)
+     * @param entry long packed data word from probe
+     * @param depth int remaining depth
+     * @return boolean if the entry's score may be used
+     */
+    boolean deepEnough(long entry, int depth) {
+        int stored = TranspositionTable.depth(entry);
+        return exactDepthCutoffs ? stored == depth : stored >= depth;
+    }
+
+    /**
+     * method to find the best move for the agent in the given board state. The
+     * board is searched in place and left as it was found
+     * @param state current board state, agent to move
+     * @param depth int number of plies to search
+     * @return int best column (1 - 7)
+     */
+    public int bestMove(Board state, int depth) {
+        startSearch(state, 0);
+        if(pvs)
+            return deepen(depth, prepareTable());
+        int col = searchRoot(depth, prepareTable());
+        completedDepth = depth;
+        return col;
+    }
+
+    /**
+     * method to find the best move by iterative deepening - searches depth 1, 
+     * 2, 3... until the time budget runs out and returns the best move of the 
+     * deepest completed iteration. Each iteration tries the previous best move 
+     * first. Depth 1 always completes so a move is returned for any budget
+     * @param state current board state, agent to move
+     * @param budgetMs long wall-clock budget in milliseconds
+     * @return int best column (1 - 7)
+     */
+    public int bestMoveTimed(Board state, long budgetMs) {
+        startSearch(state, budgetMs);
+        return deepen(state.geo.cells - state.bits.moveCount, prepareTable());
+    }
+
+    /**
+     * method to run the iterations of iterative deepening
+     * @param maxDepth int deepest iteration to search
+     * @param hashMove int column to search first in the first iteration (0 for none)
+     * @return int best column of the deepest completed iteration, -1 if none
+     */
+    int deepen(int maxDepth, int hashMove) {
+        int bestCol = -1;
+        for(int depth = 1; depth <= maxDepth; depth++) {
+            int firstCol = bestCol > 0 ? bestCol : hashMove;
+            int col = pvs && multiPV <= 1 ? searchAspiration(depth, firstCol) : searchRoot(depth, firstCol);
+            if(aborted)
+                break;
+            bestCol = col;
+            completedDepth = depth;
+
+            // no point searching deeper once the result is a forced win/loss
+            if(rootScore >= WIN - MAX_PLY || rootScore <= -WIN + MAX_PLY)
+                break;
+        }
+        return bestCol;
+    }
+
+    /**
+     * method to reset per-search state 
+     * @param state board to search
+     * @param budgetMs long time budget in milliseconds, 0 for none
+     */
+    void startSearch(Board state, long budgetMs) {
+        if(state.geo != geo) {
+            // keys and squares of another layout mean nothing on this one
+            geo = state.geo;
+            standard = geo == Geometry.STANDARD;
+            orderer.setColumns(geo.cols);
+            newGame();
+        }
+        board = state;
+        ply = 0;
+        nodes = 0;
+        ttCutoffs = 0;
+        interiorNodes = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        leaves = 0;
+        Arrays.fill(cutoffsAt, 0);
+        completedDepth = 0;
+        aborted = false;
+        timed = budgetMs > 0;
+        deadline = System.nanoTime() + budgetMs * 1000000L;
+        ttProbes = 0;
+        reusedHits = 0;
+        rootReused = false;
+        researches = 0;
+        reductions = 0;
+        verifiedReductions = 0;
+        aspirationFails = 0;
+
+        // killers carry over if the opponent replied to the last root position
+        BitBoard bits = state.bits;
+        boolean grandchild = hasLastRoot && bits.moveCount == lastRoot.moveCount + 2
+            && (lastRoot.mask & ~bits.mask) == 0 && (lastRoot.xBits & ~bits.xBits) == 0;
+        if(!reuse)
+            orderer.clear();
+        else
+            orderer.newSearch(grandchild ? 2 : 0);
+        lastRoot.copyFrom(bits);
+        hasLastRoot = true;
+        if(incrementalEval)
+            evaluator.reset(board.bits, agentPlayer);
+    }
+
+    /**
+     * method to start a new table generation, or empty the table if results
+     * are not reused, and look up the root
+     * @return int best column stored for the root by an earlier search, 0 if none
+     */
+    int prepareTable() {
+        if(tt == null)
+            return 0;
+        if(!reuse) {
+            tt.clear();
+            return 0;
+        }
+        long entry = tt.probe(board.bits.canonicalKey());
+        tt.nextGeneration();
+        if(entry == TranspositionTable.MISS)
+            return 0;
+        rootReused = true;
+        return orient(TranspositionTable.move(entry), board.bits.isMirrored(), geo.cols);
+    }
+
+    /**
+     * method to add counters of the last search to a stats record
+     * @param stats SearchStats to add to
+     */
+    public void collect(SearchStats stats) {
+        stats.nodes += nodes;
+        stats.leaves += leaves;
+        stats.cutoffs += cutoffs;
+        stats.firstMoveCutoffs += firstMoveCutoffs;
+        for(int i = 0; i < cutoffsAt.length; i++)
+            stats.cutoffsAt[i] += cutoffsAt[i];
+    }
+
+    /**
+     * method to get share of interior nodes where alpha-beta cut off the 
+     * remaining moves
+     * @return double cutoff rate of last search (0 - 1)
+     */
+    public double cutoffRate() {
+        return interiorNodes == 0 ? 0 : (double) cutoffs / interiorNodes;
+    }
+
+    /**
+     * method to get share of cutoffs that came from the first move tried
+     * @return double first move cutoff rate of last search (0 - 1)
+     */
+    public double firstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * method to search all root moves to a fixed depth
+     * @param depth int number of plies to search
+     * @param firstCol int column to search first (0 for none)
+     * @return int best column (1 - 7), or -1 if the search was aborted
+     */
+    int searchRoot(int depth, int firstCol) {
+        int bestCol = -1;
+        int alpha = NEGINFINITY;
+        int[] moves = moveLists[0];
+        int count = dropMirroredMoves(moves, orderer.orderMoves(moves, board, 0, firstCol, true), board.bits);
+        Arrays.fill(iterationScores, NEGINFINITY);
+        for(int i = 0; i < count; i++) {
+            int col = moves[i];
+            // with several lines wanted a move only has to beat the last of them
+            int score = searchMove(col, depth, multiPV > 1 ? lineBound(moves, i) : alpha);
+            if(aborted)
+                return -1;
+            iterationScores[col] = score;
+            if(bestCol < 0 || score > alpha) {
+                bestCol = col;
+                alpha = score;
+            }
+        }
+        rootScore = alpha;
+        if(count > 0 && board.bits.isSymmetric()) {
+            for(int col = (geo.cols + 1) / 2 + 1; col <= geo.cols; col++)
+                iterationScores[col] = iterationScores[geo.cols + 1 - col];
+        }
+        System.arraycopy(iterationScores, 0, rootScores, 0, rootScores.length);
+        return bestCol;
+    }
+
+    /**
+     * method to get the score a root move must beat to be one of the best 
+     * multiPV moves so far - scores above it are exact
+     * @param moves int array of root moves in search order
+     * @param searched int number of moves searched so far
+     * @return int multiPV-th best score so far, NEGINFINITY if fewer searched
+     */
+    int lineBound(int[] moves, int searched) {
+        if(searched < multiPV)
+            return NEGINFINITY;
+        // the lowest score with fewer than multiPV scores above it
+        int bound = POSINFINITY;
+        for(int i = 0; i < searched; i++) {
+            int score = iterationScores[moves[i]];
+            int higher = 0;
+            for(int j = 0; j < searched; j++) {
+                if(iterationScores[moves[j]] > score)
+                    higher ++;
+            }
+            if(higher < multiPV && score < bound)
+                bound = score;
+        }
+        return bound;
+    }
+
+    /**
+     * method to score one root move 
+     * @param col int column to play (1 - 7)
+     * @param depth int number of plies to search, including the move
+     * @param alpha int score to beat - scores at or below it are upper bounds
+     * @return int score of the move
+     */
+    int searchMove(int col, int depth, int alpha) {
+        play(col, agentPlayer);
+        int score = pvs ? -negamax(depth - 1, NEGINFINITY, -alpha, col)
+            : alphaBeta(depth - 1, alpha, POSINFINITY, false, col);
+        undo();
+        return score;
+    }
+
+    /**
+     * method to run alpha-beta on the shared board - scores are always from the
+     * agent's point of view
+     * @param depth int plies left to search
+     * @param alpha int alpha value
+     * @param beta int beta value
+     * @param max boolean value indicating maximizing (agent to move) level
+     * @param lastCol int column of the move that led to this position
+     * @return int score of the position
+     */
+    int alphaBeta(int depth, int alpha, int beta, boolean max, int lastCol) {
+        nodes ++;
+
+        // poll the clock every 1024 nodes once a move is in hand, and for a
+        // stop request from another thread at any time
+        if((nodes & 1023) == 0) {
+            if(stopRequested || (timed && completedDepth > 0 && System.nanoTime() > deadline))
+                aborted = true;
+        }
+        if(aborted)
+            return 0;
+
+        // game over or depth reached
+        if(depth == 0 || !board.playing) {
+            return evaluate(lastCol);
+        }
+
+        // check for a stored result before searching moves
+        int alphaOrig = alpha;
+        int betaOrig = beta;
+        long key = 0;
+        boolean mirrored = false;
+        int hashMove = 0;
+        if(tt != null) {
+            // a position and its mirror image share an entry
+            key = board.bits.key();
+            long mirrorKey = board.bits.mirrorKey();
+            mirrored = mirrorKey < key;
+            if(mirrored)
+                key = mirrorKey;
+            long entry = tt.probe(key);
+            ttProbes ++;
+            if(entry != TranspositionTable.MISS) {
+                hashMove = orient(TranspositionTable.move(entry), mirrored, geo.cols);
+                if(!tt.isCurrent(entry))
+                    reusedHits ++;
+            }
+            if(entry != TranspositionTable.MISS && deepEnough(entry, depth)) {
+                int score = fromTable(TranspositionTable.score(entry));
+                int bound = TranspositionTable.bound(entry);
+                if(bound == TranspositionTable.EXACT) {
+                    ttCutoffs ++;
+                    return score;
+                } else if(bound == TranspositionTable.LOWER && score > alpha) {
+                    alpha = score;
+                } else if(bound == TranspositionTable.UPPER && score < beta) {
+                    beta = score;
+                }
+                if(alpha >= beta) {
+                    ttCutoffs ++;
+                    return score;
+                }
+            }
+        }
+
+        interiorNodes ++;
+        int[] moves = moveLists[ply];
+        int count = orderer.orderMoves(moves, board, ply, hashMove, max);
+
+        int bestUtil;
+        int bestCol = 0;
+        if(max) {
+            int maxUtil = NEGINFINITY;
+            for(int i = 0; i < count; i++) {
+                int col = moves[i];
+                play(col, agentPlayer);
+                int utility = alphaBeta(depth - 1, alpha, beta, false, col);
+                undo();
+                if(aborted)
+                    return 0;
+                if(utility > maxUtil) {
+                    maxUtil = utility;
+                    bestCol = col;
+                }
+                if(maxUtil > alpha)
+                    alpha = maxUtil;
+                if(alpha >= beta) {
+                    recordCutoff(i, col, depth, max);
+                    break;
+                }
+            }
+            bestUtil = maxUtil;
+        } else {
+            int minUtil = POSINFINITY;
+            for(int i = 0; i < count; i++) {
+                int col = moves[i];
+                play(col, !agentPlayer);
+                int utility = alphaBeta(depth - 1, alpha, beta, true, col);
+                undo();
+                if(aborted)
+                    return 0;
+                if(utility < minUtil) {
+                    minUtil = utility;
+                    bestCol = col;
+                }
+                if(minUtil < beta)
+                    beta = minUtil;
+                if(alpha >= beta) {
+                    recordCutoff(i, col, depth, max);
+                    break;
+                }
+            }
+            bestUtil = minUtil;
+        }
+
+        if(tt != null) {
+            int bound = TranspositionTable.EXACT;
+            if(bestUtil <= alphaOrig)
+                bound = TranspositionTable.UPPER;
+            else if(bestUtil >= betaOrig)
+                bound = TranspositionTable.LOWER;
+            tt.store(key, toTable(bestUtil), bound, depth, orient(bestCol, mirrored, geo.cols));
+        }
+        return bestUtil;
+    }
+
+    /**
+     * method to search the root to a fixed depth within an aspiration window
+     * around the previous iteration's score - a score outside the window is
+     * only a bound, so the window is widened on that side and the root 
+     * searched again. The first iteration and forced wins/losses get the full
+     * window
+     * @param depth int number of plies to search
+     * @param firstCol int column to search first (0 for none)
+     * @return int best column (1 - 7), or -1 if the search was aborted
+     */
+    int searchAspiration(int depth, int firstCol) {
+        int center = rootScore;
+        int alpha = NEGINFINITY;
+        int beta = POSINFINITY;
+        int delta = ASPIRATION_WINDOW;
+        if(completedDepth > 0 && center < WIN - MAX_PLY && center > -WIN + MAX_PLY) {
+            alpha = center - delta;
+            beta = center + delta;
+        }
+        while(true) {
+            int col = searchRootPVS(depth, firstCol, alpha, beta);
+            if(aborted) {
+                rootScore = center;
+                return -1;
+            }
+            if(rootScore > alpha && rootScore < beta)
+                return col;
+            aspirationFails ++;
+            delta *= 4;
+            if(rootScore <= alpha) {
+                alpha = center - delta <= -WIN + MAX_PLY ? NEGINFINITY : center - delta;
+            } else {
+                beta = center + delta >= WIN - MAX_PLY ? POSINFINITY : center + delta;
+                // the move that failed high goes first next time
+                firstCol = col;
+            }
+        }
+    }
+
+    /**
+     * method to search all root moves to a fixed depth with principal 
+     * variation search - root moves are never reduced
+     * @param depth int number of plies to search
+     * @param firstCol int column to search first (0 for none)
+     * @param alpha int lower bound of the window
+     * @param beta int upper bound of the window
+     * @return int best column (1 - 7), or -1 if the search was aborted
+     */
+    int searchRootPVS(int depth, int firstCol, int alpha, int beta) {
+        int bestCol = -1;
+        int best = NEGINFINITY;
+        int[] moves = moveLists[0];
+        int count = dropMirroredMoves(moves, orderer.orderMoves(moves, board, 0, firstCol, true), board.bits);
+        for(int i = 0; i < count; i++) {
+            int col = moves[i];
+            play(col, agentPlayer);
+            int score;
+            if(i == 0) {
+                score = -negamax(depth - 1, -beta, -alpha, col);
+            } else {
+                score = -negamax(depth - 1, -alpha - 1, -alpha, col);
+                if(score > alpha && score < beta) {
+                    researches ++;
+                    score = -negamax(depth - 1, -beta, -alpha, col);
+                }
+            }
+            undo();
+            if(aborted)
+                return -1;
+            if(score > best) {
+                best = score;
+                bestCol = col;
+            }
+            if(best > alpha)
+                alpha = best;
+            if(alpha >= beta)
+                break;
+        }
+        rootScore = best;
+        return bestCol;
+    }
+
+    /**
+     * method to run principal variation search on the shared board - scores 
+     * are from the point of view of the side to move. The first move in order
+     * is searched with the full window; every other move with a zero window 
+     * that only proves it is no better, and again with the full window if it
+     * is. Late moves in the order are first searched a ply shallower, and at
+     * full depth if the reduced search beats alpha. Table entries are kept
+     * from the agent's point of view like alphaBeta's
+     * @param depth int plies left to search
+     * @param alpha int alpha value
+     * @param beta int beta value
+     * @param lastCol int column of the move that led to this position
+     * @return int score of the position for the side to move
+     */
+    int negamax(int depth, int alpha, int beta, int lastCol) {
+        nodes ++;
+        if((nodes & 1023) == 0) {
+            if(stopRequested || (timed && completedDepth > 0 && System.nanoTime() > deadline))
+                aborted = true;
+        }
+        if(aborted)
+            return 0;
+
+        // agent to move at even plies
+        boolean max = (ply & 1) == 0;
+        if(depth == 0 || !board.playing) {
+            int score = evaluate(lastCol);
+            return max ? score : -score;
+        }
+
+        int alphaOrig = alpha;
+        int betaOrig = beta;
+        long key = 0;
+        boolean mirrored = false;
+        int hashMove = 0;
+        if(tt != null) {
+            // a position and its mirror image share an entry
+            key = board.bits.key();
+            long mirrorKey = board.bits.mirrorKey();
+            mirrored = mirrorKey < key;
+            if(mirrored)
+                key = mirrorKey;
+            long entry = tt.probe(key);
+            ttProbes ++;
+            if(entry != TranspositionTable.MISS) {
+                hashMove = orient(TranspositionTable.move(entry), mirrored, geo.cols);
+                if(!tt.isCurrent(entry))
+                    reusedHits ++;
+            }
+            if(entry != TranspositionTable.MISS && deepEnough(entry, depth)) {
+                int score = fromTable(TranspositionTable.score(entry));
+                int bound = TranspositionTable.bound(entry);
+                if(!max) {
+                    score = -score;
+                    bound = flip(bound);
+                }
+                if(bound == TranspositionTable.EXACT) {
+                    ttCutoffs ++;
+                    return score;
+                } else if(bound == TranspositionTable.LOWER && score > alpha) {
+                    alpha = score;
+                } else if(bound == TranspositionTable.UPPER && score < beta) {
+                    beta = score;
+                }
+                if(alpha >= beta) {
+                    ttCutoffs ++;
+                    return score;
+                }
+            }
+        }
+
+        interiorNodes ++;
+        int[] moves = moveLists[ply];
+        int count = orderer.orderMoves(moves, board, ply, hashMove, max);
+        boolean player = max ? agentPlayer : !agentPlayer;
+
+        int best = NEGINFINITY;
+        int bestCol = 0;
+        for(int i = 0; i < count; i++) {
+            int col = moves[i];
+            play(col, player);
+            int score;
+            if(i == 0) {
+                score = -negamax(depth - 1, -beta, -alpha, col);
+            } else {
+                int reduction = lateMoveReductions && i >= LMR_MOVES && depth >= LMR_DEPTH ? 1 : 0;
+                reductions += reduction;
+                score = -negamax(depth - 1 - reduction, -alpha - 1, -alpha, col);
+                if(reduction > 0 && score > alpha) {
+                    verifiedReductions ++;
+                    score = -negamax(depth - 1, -alpha - 1, -alpha, col);
+                }
+                if(score > alpha && score < beta) {
+                    researches ++;
+                    score = -negamax(depth - 1, -beta, -alpha, col);
+                }
+            }
+            undo();
+            if(aborted)
+                return 0;
+            if(score > best) {
+                best = score;
+                bestCol = col;
+            }
+            if(best > alpha)
+                alpha = best;
+            if(alpha >= beta) {
+                recordCutoff(i, col, depth, max);
+                break;
+            }
+        }
+
+        if(tt != null) {
+            int bound = TranspositionTable.EXACT;
+            if(best <= alphaOrig)
+                bound = TranspositionTable.UPPER;
+            else if(best >= betaOrig)
+                bound = TranspositionTable.LOWER;
+            tt.store(key, toTable(max ? best : -best), max ? bound : flip(bound), depth, orient(bestCol, mirrored, geo.cols));
+        }
+        return best;
+    }
+
+    /**
+     * method to swap a lower bound for an upper bound and back, for a score
+     * seen from the other side
+     * @param bound int table bound type
+     * @return int bound type from the other side
+     */
+    static int flip(int bound) {
+        if(bound == TranspositionTable.LOWER)
+            return TranspositionTable.UPPER;
+        if(bound == TranspositionTable.UPPER)
+            return TranspositionTable.LOWER;
+        return bound;
+    }
+
+    /**
+     * method to count a cutoff and pass it on to move ordering
+     * @param index int position of the cutoff move in the ordered list
+     * @param col int column that caused the cutoff
+     * @param depth int remaining depth of the position
+     * @param max boolean if agent was to move
+     */
+    void recordCutoff(int index, int col, int depth, boolean max) {
+        cutoffs ++;
+        cutoffsAt[Math.min(index, cutoffsAt.length - 1)] ++;
+        if(index == 0)
+            firstMoveCutoffs ++;
+        orderer.recordCutoff(board, ply, col, depth, max);
+    }
+
+    /**
+     * method to turn a column between a position and its mirror image, for 
+     * table entries kept under the canonical key
+     * @param col int column (1 - 7), 0 for none
+     * @param mirrored boolean if the entry's orientation is the mirror image
+     * @return int column in the other orientation if mirrored, 0 for none
+     */
+    static int orient(int col, boolean mirrored) {
+        return orient(col, mirrored, BitBoard.WIDTH);
+    }
+
+    /**
+     * method to turn a column between a position and its mirror image on a 
+     * board of any width
+     * @param col int column (1 - cols), 0 for none
+     * @param mirrored boolean if the entry's orientation is the mirror image
+     * @param cols int number of columns of the board
+     * @return int column in the other orientation if mirrored, 0 for none
+     */
+    static int orient(int col, boolean mirrored, int cols) {
+        return mirrored && col > 0 ? cols + 1 - col : col;
+    }
+
+    /**
+     * method to drop the moves right of the center from a symmetric position's
+     * move list - each leads to the mirror image of a move left of it, so
+     * scores the same
+     * @param moves int array of ordered moves
+     * @param count int number of moves in list
+     * @param bits BitBoard of position
+     * @return int number of moves left in list, in the same order
+     */
+    static int dropMirroredMoves(int[] moves, int count, BitBoard bits) {
+        if(!bits.isSymmetric())
+            return count;
+        int center = (bits.geometry().cols + 1) / 2;
+        int kept = 0;
+        for(int i = 0; i < count; i++) {
+            if(moves[i] <= center)
+                moves[kept++] = moves[i];
+        }
+        return kept;
+    }
+
+    /**
+     * method to convert a score to table form - win/loss scores are stored as
+     * distance from this position rather than from the root
+     * @param score int score relative to root
+     * @return int score relative to current position
+     */
+    int toTable(int score) {
+        if(score >= WIN - MAX_PLY)
+            return score + ply;
+        if(score <= -WIN + MAX_PLY)
+            return score - ply;
+        return score;
+    }
+
+    /**
+     * method to convert a score from table form back to root-relative form
+     * @param score int score relative to current position
+     * @return int score relative to root
+     */
+    int fromTable(int score) {
+        if(score >= WIN - MAX_PLY)
+            return score - ply;
+        if(score <= -WIN + MAX_PLY)
+            return score + ply;
+        return score;
+    }
+
+    /**
+     * method to score the current board for the agent with the Node heuristics
+     * @param lastCol int column of the move that led to this position
+     * @return int utility x10, or +/-(WIN - ply) for won/lost boards
+     */
+    public int evaluate(int lastCol) {
+        leaves ++;
+        if(!incrementalEval)
+            return evaluateNode(lastCol);
+
+        // same order of checks as Node.evalUtility
+        long agent = board.bits.pieces(agentPlayer);
+        long opponent = board.bits.pieces(!agentPlayer);
+        if(standard ? BitBoard.isWin(agent) : geo.isWin(agent))
+            return WIN - ply;
+        if(standard ? BitBoard.isWin(opponent) : geo.isWin(opponent))
+            return -WIN + ply;
+
+        // opponent wins on its next move whatever the agent does
+        threats.analyze(board.bits);
+        if(threats.opponentWinsNext(agentPlayer, ply % 2 == 0))
+            return -WIN + ply;
+        return evaluator.score();
+    }
+
+    /**
+     * method to score the current board by running Node.evalUtility 
+     * @param lastCol int column of the move that led to this position
+     * @return int utility x10, or +/-(WIN - ply) for won/lost boards
+     */
+    int evaluateNode(int lastCol) {
+        scratch.board = board;
+        scratch.lastMove = lastCol;
+        scratch.agentType = agentType;
+        scratch.opType = opType;
+        double utility = scratch.evalUtility();
+        if(utility >= scratch.MAX)
+            return WIN - ply;
+        if(utility <= scratch.MIN)
+            return -WIN + ply;
+        return (int) Math.round(utility * 10);
+    }
+
+    /**
+     * method to play a move on the shared board and push it on the move stack
+     * @param col int column to play (1 - 7)
+     * @param player boolean for player (true is X, false O)
+     */
+    void play(int col, boolean player) {
+        if(incrementalEval)
+            evaluator.play(board.bits.nextSquare(col - 1), player == agentPlayer);
+        board.makeMove(col, player);
+        moveStack[ply++] = col;
+    }
+
+    /**
+     * method to take back the last move on the move stack
+     */
+    void undo() {
+        if(incrementalEval)
+            evaluator.undo();
+        board.undoMove(moveStack[--ply]);
+    }
+}
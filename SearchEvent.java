@@ -0,0 +1,50 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: SearchEvent.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: JDK Flight Recorder event for one Minimax.initAgent call. The
+ * event's duration is the time taken to pick the move. Record with e.g.
+ *   java -XX:StartFlightRecording=filename=c4.jfr AIC4_Sim -games 100
+ * and view with jfr print --events connect4.Search c4.jfr
+ */
+
+@Name("connect4.Search")
+@Label("Search")
+@Category("Connect-4")
+@Description("Move chosen by the advanced AI agent")
+public class SearchEvent extends Event {
+
+    @Label("Source")
+    @Description("search, or opening/block if a shortcut fired instead")
+    public String source;
+
+    @Label("Move")
+    public int move;
+
+    @Label("Depth")
+    public int depth;
+
+    @Label("Nodes")
+    public long nodes;
+
+    @Label("Leaves")
+    public long leaves;
+
+    @Label("Cutoffs")
+    public long cutoffs;
+
+    @Label("First Move Cutoffs")
+    public long firstMoveCutoffs;
+
+    @Label("Effective Branching Factor")
+    public double branchingFactor;
+}
@@ -0,0 +1,69 @@
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: SearchStats.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Counters for one Minimax.initAgent call - how the move was
+ * chosen (search, endgame solve, position cache or one of the opening/blocking
+ * shortcuts), nodes visited, leaves evaluated, alpha-beta cutoffs by position
+ * of the cutoff move, depth reached and elapsed time.
+ */
+
+public class SearchStats {
+
+    // how the move was chosen - BLOCK also covers taking an immediate win
+    public static final String SEARCH = "search";
+    public static final String OPENING = "opening";
+    public static final String BLOCK = "block";
+    public static final String SOLVE = "solve";
+    public static final String CACHE = "cache";
+
+    public String source;
+    public int depth;
+    public long nodes, leaves, cutoffs, firstMoveCutoffs;
+    public long elapsedNanos;
+
+    // cutoffs by position of the cutoff move in the ordered move list
+    public final long[] cutoffsAt = new long[BitBoard.WIDTH];
+
+    /**
+     * method to reset all counters
+     */
+    public void clear() {
+        source = null;
+        depth = 0;
+        nodes = 0;
+        leaves = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        elapsedNanos = 0;
+        for(int i = 0; i < cutoffsAt.length; i++)
+            cutoffsAt[i] = 0;
+    }
+
+    /**
+     * method to get effective branching factor - the branching factor of a
+     * uniform tree of the same depth and node count
+     * @return double effective branching factor, 0 if nothing was searched
+     */
+    public double branchingFactor() {
+        if(depth <= 0 || nodes <= 1)
+            return 0;
+        return Math.pow(nodes, 1.0 / depth);
+    }
+
+    /**
+     * method to get a percentile from sorted samples (nearest rank)
+     * @param sorted double array of samples in ascending order
+     * @param p double percentile (0 - 100)
+     * @return double sample at percentile, 0 if there are no samples
+     */
+    public static double percentile(double[] sorted, double p) {
+        if(sorted.length == 0)
+            return 0;
+        int rank = (int) Math.ceil(p / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
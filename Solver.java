@@ -0,0 +1,254 @@
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: Solver.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Exact solver for late positions. Searches to the end of the
+ * game with negamax on a bitboard and scores positions by result and distance
+ * instead of heuristics. With n pieces on the board before the winning move,
+ * a position's score for the side to move is
+ *   (43 - n) / 2  if it wins (sooner wins score more)
+ *   0             for a draw
+ *   -(43 - n) / 2 if the opponent wins
+ * so scores lie in -21 to 21. The exact score is found MTD(f) style by a
+ * series of null-window searches, each asking "is the score at least s?",
+ * which converge on the score like a binary search. Null-window searches
+ * cut off far more than a full window, and the transposition table carries
+ * bounds from one iteration to the next.
+ *
+ * Moves that hand the opponent an immediate win are never searched, and the
+ * side to move takes an immediate win without searching further. A position
+ * and its mirror image share a table entry. A solve stopped from another
+ * thread gives up and returns no move.
+ */
+
+public class Solver {
+
+    static final int CELLS = BitBoard.WIDTH * BitBoard.HEIGHT;
+
+    // columns searched center first
+    static final int[] ORDER = {3, 2, 4, 1, 5, 0, 6};
+
+    final BitBoard bits = new BitBoard();
+    TranspositionTable tt;
+    long nodes;
+
+    // score and time taken of the last solve
+    public int lastScore;
+    public long lastSolveNanos;
+
+    // set from another thread to abandon the solve, checked every 1024 nodes
+    public volatile boolean stopRequested;
+    boolean aborted;
+
+    /**
+     * constructor to create solver with a transposition table of given size
+     * @param sizeMB int table size in megabytes
+     */
+    public Solver(int sizeMB) {
+        tt = new TranspositionTable(sizeMB);
+    }
+
+    /**
+     * method to find the best move - a win in the fewest moves, otherwise a
+     * draw, otherwise the longest loss. Ties go to the column nearest the center
+     * @param state current board state, side to move is the one to play
+     * @return int best column (1 - 7), or -1 if stopped
+     */
+    public int bestMove(Board state) {
+        long start = System.nanoTime();
+        bits.copyFrom(state.bits);
+        nodes = 0;
+        aborted = false;
+        tt.nextGeneration();
+
+        int bestCol = -1;
+        int bestScore = Integer.MIN_VALUE;
+        long wins = BitBoard.winningSquares(current(), bits.mask) & possible();
+        // moves right of the center of a symmetric position mirror those left of it
+        boolean symmetric = bits.isSymmetric();
+        for(int col : ORDER) {
+            if(!bits.canPlay(col) || (symmetric && col > BitBoard.WIDTH / 2))
+                continue;
+            int score;
+            if((wins & BitBoard.columnMask(col)) != 0) {
+                score = (CELLS + 1 - bits.moveCount) / 2;
+            } else {
+                bits.play(col, toMove());
+                score = -solve();
+                bits.undo(col);
+            }
+            if(aborted) {
+                lastSolveNanos = System.nanoTime() - start;
+                return -1;
+            }
+            if(score > bestScore) {
+                bestScore = score;
+                bestCol = col;
+            }
+        }
+        lastScore = bestScore;
+        lastSolveNanos = System.nanoTime() - start;
+        return bestCol + 1;
+    }
+
+    /**
+     * method to convert a solver score to the search's scale, WIN less the plies
+     * to the winning move for a win
+     * @param score int solver score for the side to move
+     * @param moveCount int pieces on the board when the score was found
+     * @return int score on the Search scale
+     */
+    static int toSearchScore(int score, int moveCount) {
+        if(score == 0)
+            return 0;
+        // the winning move is made with n pieces down, n of the winner's parity
+        int winner = score > 0 ? moveCount : moveCount + 1;
+        int n = CELLS + 1 - 2 * Math.abs(score);
+        if((n - winner) % 2 != 0)
+            n --;
+        int plies = n - moveCount + 1;
+        return score > 0 ? Search.WIN - plies : -Search.WIN + plies;
+    }
+
+    /**
+     * method to get the exact score of the loaded position for the side to move
+     * @return int score (see class description)
+     */
+    int solve() {
+        if((BitBoard.winningSquares(current(), bits.mask) & possible()) != 0)
+            return (CELLS + 1 - bits.moveCount) / 2;
+        int min = -(CELLS - bits.moveCount) / 2;
+        int max = (CELLS + 1 - bits.moveCount) / 2;
+
+        // null-window searches, narrowing [min, max] down to the score
+        while(min < max && !aborted) {
+            int mid = min + (max - min) / 2;
+            if(mid <= 0 && min / 2 < mid)
+                mid = min / 2;
+            else if(mid >= 0 && max / 2 > mid)
+                mid = max / 2;
+            int r = negamax(mid, mid + 1);
+            if(r <= mid)
+                max = r;
+            else
+                min = r;
+        }
+        return min;
+    }
+
+    /**
+     * method to run negamax with alpha-beta on the loaded position - the side
+     * to move has no immediate win
+     * @param alpha int alpha value
+     * @param beta int beta value
+     * @return int score if inside (alpha, beta), otherwise a bound beyond it
+     */
+    int negamax(int alpha, int beta) {
+        nodes ++;
+        if((nodes & 1023) == 0 && stopRequested)
+            aborted = true;
+        if(aborted)
+            return 0;
+
+        // moves that do not let the opponent win straight away
+        long safe = nonLosingMoves();
+        if(safe == 0)
+            return -(CELLS - bits.moveCount) / 2;
+
+        // draw if the board fills up with the next two moves
+        if(bits.moveCount >= CELLS - 2)
+            return 0;
+
+        // opponent cannot win before its next move
+        int min = -(CELLS - 2 - bits.moveCount) / 2;
+        if(alpha < min) {
+            alpha = min;
+            if(alpha >= beta)
+                return alpha;
+        }
+
+        // we cannot win on this move (checked by caller), so at best the next
+        int max = (CELLS - 1 - bits.moveCount) / 2;
+        // a position and its mirror image share an entry
+        long key = bits.key();
+        long mirrorKey = bits.mirrorKey();
+        boolean mirrored = mirrorKey < key;
+        if(mirrored)
+            key = mirrorKey;
+        long entry = tt.probe(key);
+        if(entry != TranspositionTable.MISS) {
+            int score = TranspositionTable.score(entry);
+            if(TranspositionTable.bound(entry) == TranspositionTable.LOWER) {
+                if(score > alpha) {
+                    alpha = score;
+                    if(alpha >= beta)
+                        return alpha;
+                }
+            } else if(score < max) {
+                max = score;
+            }
+        }
+        if(beta > max) {
+            beta = max;
+            if(alpha >= beta)
+                return beta;
+        }
+
+        boolean player = toMove();
+        for(int col : ORDER) {
+            if((safe & BitBoard.columnMask(col)) == 0)
+                continue;
+            bits.play(col, player);
+            int score = -negamax(-beta, -alpha);
+            bits.undo(col);
+            if(aborted)
+                return 0;
+            if(score >= beta) {
+                tt.store(key, score, TranspositionTable.LOWER, CELLS - bits.moveCount, Search.orient(col + 1, mirrored));
+                return score;
+            }
+            if(score > alpha)
+                alpha = score;
+        }
+        tt.store(key, alpha, TranspositionTable.UPPER, CELLS - bits.moveCount, 0);
+        return alpha;
+    }
+
+    /**
+     * method to get playable squares that do not give the opponent a win - if
+     * the opponent has two immediate wins or one with the square above ours,
+     * there are none
+     * @return long bitmask of safe squares to play
+     */
+    long nonLosingMoves() {
+        long possible = possible();
+        long opWins = BitBoard.winningSquares(bits.pieces(!toMove()), bits.mask);
+        long forced = possible & opWins;
+        if(forced != 0) {
+            // must block, and can only block one
+            if((forced & (forced - 1)) != 0)
+                return 0;
+            possible = forced;
+        }
+        // never play directly below an opponent winning square
+        return possible & ~(opWins >>> 1);
+    }
+
+    // squares a piece can be dropped on now
+    long possible() {
+        return (bits.mask + BitBoard.BOTTOM_MASK) & BitBoard.BOARD_MASK;
+    }
+
+    // pieces of the side to move
+    long current() {
+        return bits.pieces(toMove());
+    }
+
+    // side to move, X moves first
+    boolean toMove() {
+        return bits.moveCount % 2 == 0;
+    }
+}
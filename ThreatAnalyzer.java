@@ -0,0 +1,135 @@
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: ThreatAnalyzer.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Threat detection for both players in one pass over a bitboard.
+ * A threat is an empty square that would complete a line (four-in-a-row on
+ * the standard board) for a player.
+ * All results are square bitmasks (see BitBoard):
+ *   - threats of each player anywhere on the board
+ *   - playable threats, i.e. wins on the next move
+ *   - playable squares directly under a threat, which hand that threat to
+ *     the other player if played
+ *   - threats on odd rows (1, 3, 5 counting from the bottom as 1) and on even
+ *     rows - with no other play left, the first player (X) can claim odd row
+ *     squares and the second player (O) even ones, so odd threats favor X and
+ *     even threats favor O (standard board only)
+ *
+ * One analyzer can be reused for any number of positions.
+ */
+
+public class ThreatAnalyzer {
+
+    // rows 1, 3 and 5 counting from the bottom as 1 (bit rows 0, 2 and 4)
+    public static final long ODD_ROWS = BitBoard.BOTTOM_MASK * 0b010101;
+    public static final long EVEN_ROWS = BitBoard.BOTTOM_MASK * 0b101010;
+
+    public long xThreats, oThreats;
+    public long playable;
+
+    // bits per column of the last position analyzed
+    int h1 = BitBoard.H1;
+
+    /**
+     * method to find threats of both players in a position
+     * @param bits bitboard of position
+     */
+    public void analyze(BitBoard bits) {
+        xThreats = bits.threats(bits.xBits);
+        oThreats = bits.threats(bits.oBits);
+        playable = bits.legalMoves();
+        h1 = bits.geometry().h1;
+    }
+
+    /**
+     * method to get all threats of a player
+     * @param player boolean for player (true is X, false O)
+     * @return long bitmask of squares that would win for player
+     */
+    public long threats(boolean player) {
+        return player ? xThreats : oThreats;
+    }
+
+    /**
+     * method to get squares a player can win on with its next move
+     * @param player boolean for player (true is X, false O)
+     * @return long bitmask of playable winning squares
+     */
+    public long immediateWins(boolean player) {
+        return threats(player) & playable;
+    }
+
+    /**
+     * method to get playable squares directly under a threat of a player - the
+     * other player should not play there
+     * @param player boolean for player whose threats to look under
+     * @return long bitmask of playable squares
+     */
+    public long underThreats(boolean player) {
+        return (threats(player) >>> 1) & playable;
+    }
+
+    /**
+     * method to get threats of a player on odd rows (1, 3, 5 from the bottom)
+     * @param player boolean for player (true is X, false O)
+     * @return long bitmask of odd row threats
+     */
+    public long oddThreats(boolean player) {
+        return threats(player) & ODD_ROWS;
+    }
+
+    /**
+     * method to get threats of a player on even rows (2, 4, 6 from the bottom)
+     * @param player boolean for player (true is X, false O)
+     * @return long bitmask of even row threats
+     */
+    public long evenThreats(boolean player) {
+        return threats(player) & EVEN_ROWS;
+    }
+
+    /**
+     * method to check if the opponent of a player wins with its next move no
+     * matter what - either it is the opponent's turn and it has a win, or it is
+     * the player's turn, the player has no win of its own and cannot stop the
+     * opponent (two wins, or one directly under another threat)
+     * @param player boolean for player (true is X, false O)
+     * @param playerToMove boolean if it is player's turn
+     * @return boolean if the opponent wins next
+     */
+    public boolean opponentWinsNext(boolean player, boolean playerToMove) {
+        long opWins = immediateWins(!player);
+        if(opWins == 0)
+            return false;
+        if(!playerToMove)
+            return true;
+        if(immediateWins(player) != 0)
+            return false;
+        return (opWins & (opWins - 1)) != 0 || ((opWins << 1) & threats(!player)) != 0;
+    }
+
+    /**
+     * method to get the column of the first square of a bitmask
+     * @param squares long bitmask of squares
+     * @return int column (1 - 7), or -1 if there are no squares
+     */
+    public static int column(long squares) {
+        if(squares == 0)
+            return -1;
+        return Long.numberOfTrailingZeros(squares) / BitBoard.H1 + 1;
+    }
+
+    /**
+     * method to get the column of the first square of a bitmask on the board
+     * last analyzed
+     * @param squares long bitmask of squares
+     * @return int column (1 - cols), or -1 if there are no squares
+     */
+    public int columnOf(long squares) {
+        if(squares == 0)
+            return -1;
+        return Long.numberOfTrailingZeros(squares) / h1 + 1;
+    }
+}
@@ -0,0 +1,192 @@
+import java.util.Arrays;
+
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: TranspositionTable.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Fixed-size transposition table for the in-place search. Each
+ * entry takes two slots of a long array, the position key (BitBoard.key) and a
+ * packed data word:
+ *
+ *   bits  0-31  score
+ *   bits 32-33  bound type (EXACT, LOWER or UPPER)
+ *   bits 34-41  remaining depth
+ *   bits 42-45  best move column (0 if none)
+ *   bits 46-53  search generation
+ *   bits 54-63  game number
+ *
+ * Entries are replaced depth-preferred: a slot is only overwritten by a search
+ * at least as deep, unless the slot holds the same position or was written by
+ * an older search. Entries stored before the last newGame read as empty, so
+ * a new game starts from an empty table without the cost of clearing it.
+ *
+ * The table can be shared by several search threads without locking: the key
+ * slot holds key XOR data, so an entry torn by two threads writing the same
+ * slot at once fails the key check and reads as a miss. Hit and store counters
+ * are not synchronized and only approximate when shared.
+ */
+
+public class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    // data word of an empty slot, valid entries always have a bound type
+    public static final long MISS = 0;
+
+    final long[] table;
+    final int indexBits;
+    final int sizeMB;
+    int generation, game;
+
+    long probes, hits, stores;
+
+    /**
+     * constructor to allocate table of the given size - number of entries is
+     * rounded down to a power of two
+     * @param sizeMB int table size in megabytes
+     */
+    public TranspositionTable(int sizeMB) {
+        this.sizeMB = sizeMB;
+        long entries = Long.highestOneBit(Math.max(1, (long) sizeMB * 1024 * 1024 / 16));
+        // keep the backing array addressable by an int index
+        entries = Math.min(entries, 1L << 29);
+        indexBits = Long.numberOfTrailingZeros(entries);
+        table = new long[(int) entries * 2];
+    }
+
+    /**
+     * method to look up a position
+     * @param key long position key
+     * @return long packed data word, or MISS if position is not stored
+     */
+    public long probe(long key) {
+        probes ++;
+        int slot = index(key);
+        long data = table[slot + 1];
+        if(data == MISS || (table[slot] ^ data) != key || game(data) != game)
+            return MISS;
+        hits ++;
+        return data;
+    }
+
+    /**
+     * method to store a search result
+     * @param key long position key
+     * @param score int score of position
+     * @param bound int bound type of score (EXACT, LOWER or UPPER)
+     * @param depth int remaining depth the position was searched to
+     * @param move int best column found (1 - 7), 0 if none
+     */
+    public void store(long key, int score, int bound, int depth, int move) {
+        int slot = index(key);
+        long old = table[slot + 1];
+        if(old != MISS && game(old) == game && (table[slot] ^ old) != key
+                && generation(old) == (generation & 0xFF) && depth(old) > depth)
+            return;
+        long data = pack(score, bound, depth, move, generation, game);
+        table[slot] = key ^ data;
+        table[slot + 1] = data;
+        stores ++;
+    }
+
+    /**
+     * method to start a new search - entries from older searches become
+     * replaceable
+     */
+    public void nextGeneration() {
+        generation ++;
+    }
+
+    /**
+     * method to start a new game - every stored entry becomes invisible, and
+     * the table is emptied for real once the game number wraps around
+     */
+    public void newGame() {
+        game = (game + 1) & 0x3FF;
+        if(game == 0)
+            clear();
+        generation = 0;
+    }
+
+    /**
+     * method to check if an entry was stored by the current search
+     * @param data long packed data word from probe
+     * @return boolean if entry is from this generation
+     */
+    public boolean isCurrent(long data) {
+        return generation(data) == (generation & 0xFF);
+    }
+
+    /**
+     * method to empty table and restart the generation count
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        generation = 0;
+        probes = 0;
+        hits = 0;
+        stores = 0;
+    }
+
+    /**
+     * method to unpack stored score
+     * @param data long packed data word from probe
+     * @return int score
+     */
+    public static int score(long data) {
+        return (int) data;
+    }
+
+    /**
+     * method to unpack bound type of stored score
+     * @param data long packed data word from probe
+     * @return int EXACT, LOWER or UPPER
+     */
+    public static int bound(long data) {
+        return (int) (data >>> 32) & 0x3;
+    }
+
+    /**
+     * method to unpack remaining depth of stored search
+     * @param data long packed data word from probe
+     * @return int depth
+     */
+    public static int depth(long data) {
+        return (int) (data >>> 34) & 0xFF;
+    }
+
+    /**
+     * method to unpack best move of stored search
+     * @param data long packed data word from probe
+     * @return int column (1 - 7), 0 if none
+     */
+    public static int move(long data) {
+        return (int) (data >>> 42) & 0xF;
+    }
+
+    static int generation(long data) {
+        return (int) (data >>> 46) & 0xFF;
+    }
+
+    static int game(long data) {
+        return (int) (data >>> 54);
+    }
+
+    static long pack(int score, int bound, int depth, int move, int generation, int game) {
+        return (score & 0xFFFFFFFFL)
+            | ((long) bound << 32)
+            | ((long) (depth & 0xFF) << 34)
+            | ((long) (move & 0xF) << 42)
+            | ((long) (generation & 0xFF) << 46)
+            | ((long) game << 54);
+    }
+
+    private int index(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - indexBits)) << 1;
+    }
+}
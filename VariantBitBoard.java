@@ -0,0 +1,104 @@
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: VariantBitBoard.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Bitboard of a board other than the standard 6x7 connect-4,
+ * with the layout of its Geometry in place of BitBoard's constants. Only the
+ * methods that depend on the layout are overridden. The class is loaded only
+ * when a variant is played, so on the standard board every BitBoard call
+ * still binds to BitBoard's own code.
+ */
+
+public class VariantBitBoard extends BitBoard {
+
+    final Geometry geo;
+
+    /**
+     * constructor to create an empty bitboard of a geometry
+     * @param geo Geometry of the board
+     */
+    public VariantBitBoard(Geometry geo) {
+        this.geo = geo;
+    }
+
+    /**
+     * method to create an empty bitboard of a geometry - typed as BitBoard so
+     * callers do not load this class until a variant is actually played
+     * @param geo Geometry of the board
+     * @return BitBoard new VariantBitBoard
+     */
+    static BitBoard create(Geometry geo) {
+        return new VariantBitBoard(geo);
+    }
+
+    @Override
+    public Geometry geometry() {
+        return geo;
+    }
+
+    @Override
+    public boolean canPlay(int col) {
+        return (mask & geo.topMask(col)) == 0;
+    }
+
+    @Override
+    public int play(int col, boolean player) {
+        long move = (mask + geo.bottomMask(col)) & geo.columnMask(col);
+        if(player) {
+            xBits |= move;
+        } else {
+            oBits |= move;
+        }
+        mask |= move;
+        moveCount ++;
+        return Long.numberOfTrailingZeros(move) - col * geo.h1;
+    }
+
+    @Override
+    public int nextSquare(int col) {
+        return col * geo.h1 + Long.bitCount(mask & geo.columnMask(col));
+    }
+
+    @Override
+    public int undo(int col) {
+        long move = Long.highestOneBit(mask & geo.columnMask(col));
+        xBits &= ~move;
+        oBits &= ~move;
+        mask &= ~move;
+        moveCount --;
+        return Long.numberOfTrailingZeros(move) - col * geo.h1;
+    }
+
+    @Override
+    public long mirrorKey() {
+        long key = key();
+        long column = (1L << geo.h1) - 1;
+        long mirror = 0;
+        for(int col = 0; col < geo.cols; col++)
+            mirror |= ((key >>> (col * geo.h1)) & column) << ((geo.cols - 1 - col) * geo.h1);
+        return mirror;
+    }
+
+    @Override
+    public int mirrorColumn(int col) {
+        return geo.cols + 1 - col;
+    }
+
+    @Override
+    public long legalMoves() {
+        return (mask + geo.bottomRow) & geo.boardMask;
+    }
+
+    @Override
+    public boolean isFull() {
+        return mask == geo.boardMask;
+    }
+
+    @Override
+    public long threats(long pos) {
+        return geo.winningSquares(pos, mask);
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * CS311 Artificial Intelligence Final Project - Spring 2020
+ *
+ * File: VariantBoard.java
+ * Authors: Calder Birdsey and Brandon Choe
+ * Updated: 10/17/26
+ *
+ * Description: Board of a connect-N variant of any size that fits a bitboard
+ * (see Geometry.java). Board takes its size from the geometry; this class
+ * overrides the win check and printing, which have four-in-a-row and the
+ * standard column labels built in. Create with Geometry.newBoard.
+ */
+
+public class VariantBoard extends Board {
+
+    /**
+     * constructor to create a board of a geometry
+     * @param geo Geometry of the board
+     */
+    VariantBoard(Geometry geo) {
+        super(geo);
+    }
+
+    /**
+     * method to create a board of a geometry - typed as Board so callers do
+     * not load this class until a variant is actually played
+     * @param geo Geometry of the board
+     * @return Board new VariantBoard
+     */
+    static Board create(Geometry geo) {
+        return new VariantBoard(geo);
+    }
+
+    @Override
+    public boolean checkWin(String player) {
+        boolean winner = geo.isWin(bits.pieces(player.equals("X")));
+
+        if(winner) {
+            playing = false;
+            winningPlayer = player;
+        }
+        return winner;
+    }
+
+    @Override
+    public void printBoard() {
+        System.out.println();
+        for (String[] row : boardArr) {
+            for(int i = 0; i < row.length; i++) {
+                System.out.print(row[i] + "\t");
+            }
+            System.out.print("\n\n");
+        }
+        StringBuilder rule = new StringBuilder();
+        StringBuilder labels = new StringBuilder();
+        for(int i = 1; i <= geo.cols; i++) {
+            rule.append(i < geo.cols ? "________" : "__");
+            labels.append(i).append('\t');
+        }
+        System.out.println(rule);
+        System.out.println(labels + "\n");
+    }
+}
@@ -0,0 +1,79 @@
+package connect4;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Board hot paths: win detection, copying and making moves. Each operation
+ * covers every position of the chosen game phase.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"opening", "midgame", "endgame"})
+    String phase;
+
+    Board[] boards;
+
+    @Setup
+    public void setup() {
+        boards = Positions.boards(phase);
+    }
+
+    @Benchmark
+    public void checkWin(Blackhole bh) {
+        for(Board board : boards) {
+            bh.consume(board.checkWin("X"));
+            bh.consume(board.checkWin("O"));
+        }
+    }
+
+    @Benchmark
+    public void copyBoard(Blackhole bh) {
+        for(Board board : boards)
+            bh.consume(board.copyBoard());
+    }
+
+    @Benchmark
+    public void copyAndMakeMove(Blackhole bh) {
+        for(Board board : boards) {
+            for(int col = 1; col < 8; col++) {
+                if(!board.validMove(col))
+                    continue;
+                Board child = board.copyBoard();
+                child.makeMove(col, false);
+                bh.consume(child);
+            }
+        }
+    }
+
+    @Benchmark
+    public void makeAndUndoMove(Blackhole bh) {
+        for(Board board : boards) {
+            for(int col = 1; col < 8; col++) {
+                if(!board.validMove(col))
+                    continue;
+                board.makeMove(col, false);
+                bh.consume(board.playing);
+                board.undoMove(col);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package connect4;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tree search on boards of different geometry: nodes/sec of Minimax.minimax
+ * from the opening positions, as rows x cols x connect. 6x7x4 is the standard
+ * board - its numbers should match SearchBenchmark.minimaxTree for the
+ * opening phase.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class GeometryBenchmark {
+
+    @Param({"6x7x4", "7x8x4", "8x7x4", "6x7x5", "7x8x5"})
+    String geometry;
+
+    @Param({"4", "5"})
+    int depth;
+
+    Board[] boards;
+
+    /**
+     * node counter - JMH divides OPERATIONS counters by time, giving nodes/sec
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        Geometry geo = Geometry.parse(geometry);
+        boards = new Board[Positions.OPENING.length];
+        for(int i = 0; i < boards.length; i++)
+            boards[i] = Positions.board(geo, Positions.OPENING[i]);
+    }
+
+    @Benchmark
+    public void minimaxTree(Counters counters, Blackhole bh) {
+        Minimax agent = new Minimax();
+        for(Board board : boards) {
+            Node root = new Node();
+            root.board = board.copyBoard();
+            root.isMaxPlayer = true;
+            bh.consume(agent.minimax(root, depth, agent.NEGINFINITY, agent.POSINFINITY, true));
+            counters.nodes += SearchBenchmark.treeSize(root);
+        }
+    }
+}
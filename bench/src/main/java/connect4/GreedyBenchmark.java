@@ -0,0 +1,61 @@
+package connect4;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * GreedyAI.greedyChoice on the Node tree and its in-place variant, with the
+ * node count reported as nodes per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GreedyBenchmark {
+
+    @Param({"opening", "midgame", "endgame"})
+    String phase;
+
+    Board[] boards;
+    GreedyAI agent;
+
+    @Setup
+    public void setup() {
+        boards = Positions.boards(phase);
+        agent = new GreedyAI();
+        agent.random = new Random(1);
+    }
+
+    @Benchmark
+    public void greedyChoice(SearchBenchmark.Counters counters, Blackhole bh) {
+        for(Board board : boards) {
+            Node root = new Node();
+            root.board = board.copyBoard();
+            bh.consume(agent.greedyChoice(root, 1, true));
+            counters.nodes += root.children.size();
+        }
+    }
+
+    @Benchmark
+    public void greedyChoiceInPlace(SearchBenchmark.Counters counters, Blackhole bh) {
+        for(Board board : boards) {
+            bh.consume(agent.greedyChoiceInPlace(board));
+            counters.nodes += Long.bitCount(board.bits.legalMoves());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package connect4;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Leaf evaluation: Node.evalUtility, each of the Node score* heuristics over
+ * all of the agent's pieces, and the incremental Evaluator for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeuristicsBenchmark {
+
+    @Param({"opening", "midgame", "endgame"})
+    String phase;
+
+    Node[] nodes;
+    Evaluator[] evaluators;
+
+    @Setup
+    public void setup() {
+        Board[] boards = Positions.boards(phase);
+        nodes = new Node[boards.length];
+        evaluators = new Evaluator[boards.length];
+        for(int i = 0; i < boards.length; i++) {
+            nodes[i] = new Node();
+            nodes[i].board = boards[i];
+            nodes[i].lastMove = boards[i].lastHumanMove;
+            evaluators[i] = new Evaluator();
+            evaluators[i].reset(boards[i].bits, false);
+        }
+    }
+
+    @Benchmark
+    public void evalUtility(Blackhole bh) {
+        for(Node node : nodes) {
+            bh.consume(node.evalUtility());
+        }
+    }
+
+    @Benchmark
+    public void scoreVerticals(Blackhole bh) {
+        for(Node node : nodes) {
+            for(int i = 0; i < 6; i++)
+                for(int j = 0; j < 7; j++)
+                    if(node.board.boardArr[i][j].equals("O"))
+                        bh.consume(node.scoreVerticals(i, j, "O"));
+        }
+    }
+
+    @Benchmark
+    public void scoreHorizontals(Blackhole bh) {
+        for(Node node : nodes) {
+            for(int i = 0; i < 6; i++)
+                for(int j = 0; j < 7; j++)
+                    if(node.board.boardArr[i][j].equals("O"))
+                        bh.consume(node.scoreHorizontals(i, j, "O"));
+        }
+    }
+
+    @Benchmark
+    public void scoreDiagonals(Blackhole bh) {
+        for(Node node : nodes) {
+            for(int i = 0; i < 6; i++)
+                for(int j = 0; j < 7; j++)
+                    if(node.board.boardArr[i][j].equals("O"))
+                        bh.consume(node.scoreDiagonals(i, j, "O"));
+        }
+    }
+
+    @Benchmark
+    public void scoreNeighborhoods(Blackhole bh) {
+        for(Node node : nodes) {
+            for(int i = 0; i < 6; i++)
+                for(int j = 0; j < 7; j++)
+                    if(node.board.boardArr[i][j].equals("O"))
+                        bh.consume(node.scoreNeighborhoods(i, j, "O"));
+        }
+    }
+
+    @Benchmark
+    public void evaluatorReset(Blackhole bh) {
+        for(int i = 0; i < nodes.length; i++) {
+            evaluators[i].reset(nodes[i].board.bits, false);
+            bh.consume(evaluators[i].score());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package connect4;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Monte Carlo tree search: playouts/sec of MCTS.initAgent from the opening
+ * positions at a fixed number of playouts per move, by board geometry and
+ * search threads. Compare with GeometryBenchmark's nodes/sec for the tree
+ * search on the same boards.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class MCTSBenchmark {
+
+    @Param({"6x7x4", "7x8x4", "7x8x5"})
+    String geometry;
+
+    @Param({"1", "2"})
+    int threads;
+
+    @Param({"10000"})
+    long playouts;
+
+    Board[] boards;
+    MCTS agent;
+
+    /**
+     * playout counter - JMH divides OPERATIONS counters by time, giving
+     * playouts/sec
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long playouts;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            playouts = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        Geometry geo = Geometry.parse(geometry);
+        boards = new Board[Positions.OPENING.length];
+        for(int i = 0; i < boards.length; i++)
+            boards[i] = Positions.board(geo, Positions.OPENING[i]);
+        agent = new MCTS();
+        agent.threads = threads;
+        agent.playouts = playouts;
+        agent.seed = 1;
+    }
+
+    @TearDown
+    public void tearDown() {
+        agent.shutdown();
+    }
+
+    @Benchmark
+    public void search(Counters counters, Blackhole bh) {
+        for(Board board : boards) {
+            bh.consume(agent.initAgent(board.copyBoard()));
+            counters.playouts += agent.lastPlayouts;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package connect4;
+
+/**
+ * Fixed corpus of benchmark positions, written as the columns played from the
+ * empty board with X moving first. Every position is still in play with no
+ * immediate win for the side to move, and has an odd number of moves so the
+ * minimax agent ("O") is to move.
+ */
+public class Positions {
+
+    static final String[] OPENING = {"635", "55217", "6255621"};
+    static final String[] MIDGAME = {"465367615616455", "23517553412572721", "3236177432772253711"};
+    static final String[] ENDGAME = {
+        "2673565465325537452364376476434",
+        "453452677461532654451134651763716",
+        "77454665767347646355752122352642331"
+    };
+
+    /**
+     * method to get the positions of a game phase
+     * @param phase String "opening", "midgame" or "endgame"
+     * @return Board array of positions
+     */
+    static Board[] boards(String phase) {
+        String[] moves;
+        switch(phase) {
+            case "opening":
+                moves = OPENING;
+                break;
+            case "midgame":
+                moves = MIDGAME;
+                break;
+            case "endgame":
+                moves = ENDGAME;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown phase " + phase);
+        }
+        Board[] boards = new Board[moves.length];
+        for(int i = 0; i < moves.length; i++)
+            boards[i] = board(moves[i]);
+        return boards;
+    }
+
+    /**
+     * method to build a board from a sequence of columns
+     * @param moves String of columns (1 - 7), X moves first
+     * @return Board position after moves
+     */
+    static Board board(String moves) {
+        return board(Geometry.STANDARD, moves);
+    }
+
+    /**
+     * method to build a board of any geometry from a sequence of columns
+     * @param geo Geometry of the board
+     * @param moves String of columns (1 - cols), X moves first
+     * @return Board position after moves
+     */
+    static Board board(Geometry geo, String moves) {
+        Board board = geo.newBoard();
+        board.setBoard();
+        boolean player = true;
+        for(char c : moves.toCharArray()) {
+            int col = c - '0';
+            board.lastHumanMove = player ? col : board.lastHumanMove;
+            board.makeMove(col, player);
+            player = !player;
+        }
+        return board;
+    }
+}
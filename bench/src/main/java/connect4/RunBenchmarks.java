@@ -0,0 +1,28 @@
+package connect4;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmark suite with the allocation profiler and writes results as
+ * JSON, so runs can be compared between releases. Takes an optional benchmark
+ * name pattern and output file: RunBenchmarks [pattern] [jmh-result.json]
+ */
+public class RunBenchmarks {
+
+    public static void main(String[] args) throws RunnerException {
+        String pattern = args.length > 0 ? args[0] : "connect4\\..*";
+        String output = args.length > 1 ? args[1] : "jmh-result.json";
+        Options options = new OptionsBuilder()
+            .include(pattern)
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .result(output)
+            .build();
+        new Runner(options).run();
+    }
+}
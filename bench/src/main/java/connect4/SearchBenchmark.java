@@ -0,0 +1,101 @@
+package connect4;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Full searches: the Node tree Minimax.minimax and the in-place Search at
+ * depths 3 - 8. Runs in throughput mode so the "nodes" counter is
+ * reported as nodes per second next to searches per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"opening", "midgame", "endgame"})
+    String phase;
+
+    @Param({"3", "4", "5", "6", "7", "8"})
+    int depth;
+
+    Board[] boards;
+    Search search;
+
+    /**
+     * node counter - JMH divides OPERATIONS counters by time, giving nodes/sec
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        boards = Positions.boards(phase);
+        search = new Search();
+        search.setTableSize(4);
+    }
+
+    // every invocation searches the same positions, start each one with an
+    // empty table so results are not just lookups from the last invocation
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        search.tt.clear();
+    }
+
+    @Benchmark
+    public void minimaxTree(Counters counters, Blackhole bh) {
+        Minimax agent = new Minimax();
+        for(Board board : boards) {
+            Node root = new Node();
+            root.board = board.copyBoard();
+            root.isMaxPlayer = true;
+            bh.consume(agent.minimax(root, depth, agent.NEGINFINITY, agent.POSINFINITY, true));
+            counters.nodes += treeSize(root);
+        }
+    }
+
+    @Benchmark
+    public void inPlaceSearch(Counters counters, Blackhole bh) {
+        for(Board board : boards) {
+            bh.consume(search.bestMove(board, depth));
+            counters.nodes += search.nodes;
+        }
+    }
+
+    /**
+     * method to count nodes of a searched tree
+     * @param node root of tree
+     * @return long number of nodes below and including root
+     */
+    static long treeSize(Node node) {
+        long size = 1;
+        for(Node child : node.children)
+            size += treeSize(child);
+        return size;
+    }
+}